@@ -0,0 +1,59 @@
+package com.carlos.todoapi.config;
+
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache (JCache backed by Caffeine). The regions are
+ * created here so size and TTL come from the application properties.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${cache.entities.ttl-seconds:600}") long ttlSeconds,
+            @Value("${cache.entities.users.max-size:10000}") long usersMaxSize,
+            @Value("${cache.entities.tasks.max-size:100000}") long tasksMaxSize) {
+
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+
+        // URI própria por contexto: nos testes mais de um contexto Spring pode estar vivo ao mesmo tempo
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("todoapi-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(User.CACHE_REGION, region(usersMaxSize, ttlSeconds));
+        cacheManager.createCache(User.NATURAL_ID_CACHE_REGION, region(usersMaxSize, ttlSeconds));
+        cacheManager.createCache(Task.CACHE_REGION, region(tasksMaxSize, ttlSeconds));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,18 @@
+package com.carlos.todoapi.config;
+
+import com.carlos.todoapi.dto.request.TaskView;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // ?view= é documentado em minúsculas (view=summary); valor desconhecido continua sendo 400
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TaskView.class, value -> TaskView.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+}
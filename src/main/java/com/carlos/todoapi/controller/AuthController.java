@@ -7,6 +7,7 @@ import com.carlos.todoapi.dto.response.RegisterResponse;
 import com.carlos.todoapi.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -35,4 +36,13 @@ public class AuthController {
         LoginResponse response = authService.loginUser(loginRequest);
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutUser(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        String token = authorization.substring(7); //tira o Bearer (o filtro já validou o token)
+
+        authService.logoutUser(token);
+
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -2,102 +2,230 @@ package com.carlos.todoapi.controller;
 
 
 import com.carlos.todoapi.dto.request.CreateTaskRequest;
+import com.carlos.todoapi.dto.request.TaskFilter;
+import com.carlos.todoapi.dto.request.TaskView;
 import com.carlos.todoapi.dto.request.UpdateStatusRequest;
 import com.carlos.todoapi.dto.request.UpdateTaskRequest;
+import com.carlos.todoapi.dto.response.CursorPageResponse;
+import com.carlos.todoapi.dto.response.TaskCompletionHistoryResponse;
 import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskSearchResult;
+import com.carlos.todoapi.dto.response.TaskStatsResponse;
+import com.carlos.todoapi.dto.response.TaskSuggestion;
 import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.repository.TaskSorts;
+import com.carlos.todoapi.security.UserPrincipal;
+import com.carlos.todoapi.service.TaskETags;
+import com.carlos.todoapi.service.TaskListCache;
 import com.carlos.todoapi.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
     private final TaskService taskService;
+    private final TaskListCache taskListCache;
+    private final boolean databaseRenderer;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskListCache taskListCache, @Value("${tasks.list.renderer:jpa}") String listRenderer) {
         this.taskService = taskService;
+        this.taskListCache = taskListCache;
+        this.databaseRenderer = "database".equalsIgnoreCase(listRenderer);
     }
 
     @PostMapping
     public ResponseEntity<TaskResponse> createTask(@RequestBody @Valid CreateTaskRequest taskRequest) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        TaskResponse response = taskService.createTask(taskRequest, username);
+        TaskResponse response = taskService.createTask(taskRequest, userId);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // withTotal=false devolve um Slice (sem totalElements/totalPages); view=summary omite a descrição
+    // filtros opcionais (TaskFilter): status, priority, dueFrom/dueTo, overdue, createdFrom/createdTo, updatedFrom/updatedTo
     @GetMapping
-    public ResponseEntity<Page<TaskResponse>> getTasks(@RequestParam(required = false) TaskStatus status, @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC)Pageable pageable) {
+    public ResponseEntity<Slice<?>> getTasks(TaskFilter filter, @RequestParam(defaultValue = "true") boolean withTotal, @RequestParam(defaultValue = "full") TaskView view, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch, @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC)Pageable pageable) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        Page<TaskResponse> tasks = taskService.getTasksByUserAndStatus(username, status, pageable);
+        // só ordenações com índice, sempre com id como desempate (400 para as demais)
+        Pageable indexedPageable = TaskSorts.indexed(pageable);
+
+        // a versão da lista do usuário é o ETag: sem escrita desde a última leitura, 304 sem consultar nada.
+        // overdue= compara com a data de hoje: o dia entra no ETag e na chave do cache (o resultado muda à meia-noite)
+        long version = taskListCache.currentVersion(userId);
+        LocalDate asOf = filter.overdue() != null ? LocalDate.now() : null;
+        String etag = TaskETags.forList(version, asOf);
+
+        if (TaskETags.matches(ifNoneMatch, etag, true)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        // páginas ficam em cache até a próxima escrita do usuário (versão por usuário)
+        Slice<?> tasks = taskListCache.get(userId, version, filter, asOf, view, withTotal, indexedPageable,
+                () -> loadTasks(userId, filter, view, withTotal, indexedPageable));
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).body(tasks);
+    }
+
+    // Modo cursor (keyset): ?cursor= (vazio) para a primeira página, depois o nextCursor recebido
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<TaskResponse>> getTasksByCursor(@RequestParam(required = false) TaskStatus status, @RequestParam String cursor, @RequestParam(defaultValue = "10") int size) {
+
+        Long userId = getCurrentUserId();
+
+        CursorPageResponse<TaskResponse> tasks = taskService.getTasksByCursor(userId, status, cursor, size);
 
         return ResponseEntity.status(HttpStatus.OK).body(tasks);
     }
 
+    // Busca textual em título e descrição (PostgreSQL), mais relevantes primeiro
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<TaskSearchResult>> searchTasks(@RequestParam String q, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size) {
+
+        Long userId = getCurrentUserId();
+
+        CursorPageResponse<TaskSearchResult> results = taskService.searchTasks(userId, q, cursor, size);
+
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
+
+    // Sugestões de título para o campo de busca rápida (prefixo de qualquer palavra)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TaskSuggestion>> suggestTasks(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+
+        Long userId = getCurrentUserId();
+
+        List<TaskSuggestion> suggestions = taskService.suggestTasks(userId, prefix, limit);
+
+        return ResponseEntity.status(HttpStatus.OK).body(suggestions);
+    }
+
+    // Totais do usuário (por status, por prioridade e vencidas) para dashboards
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsResponse> getTaskStats() {
+
+        Long userId = getCurrentUserId();
+
+        TaskStatsResponse stats = taskService.getTaskStats(userId);
+
+        return ResponseEntity.status(HttpStatus.OK).body(stats);
+    }
+
+    // Histórico de produtividade: concluídas por dia (padrão: últimos 30 dias)
+    @GetMapping("/stats/completions")
+    public ResponseEntity<TaskCompletionHistoryResponse> getCompletionHistory(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        Long userId = getCurrentUserId();
+
+        TaskCompletionHistoryResponse history = taskService.getCompletionHistory(userId, from, to);
+
+        return ResponseEntity.status(HttpStatus.OK).body(history);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id) {
+    public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        TaskResponse response = taskService.getTaskById(id, username);
+        // If-None-Match: compara só com o updatedAt, sem carregar nem serializar a tarefa
+        if (ifNoneMatch != null) {
+            String currentETag = taskService.getTaskETag(id, userId);
 
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+            if (TaskETags.matches(ifNoneMatch, currentETag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+        }
+
+        TaskResponse response = taskService.getTaskById(id, userId);
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(TaskETags.forTask(response.id(), response.updatedAt())).body(response);
     }
 
 
     @PutMapping("/{id}")
-    public ResponseEntity<TaskResponse> updateTask(@PathVariable Long id, @RequestBody @Valid UpdateTaskRequest request) {
+    public ResponseEntity<TaskResponse> updateTask(@PathVariable Long id, @RequestBody @Valid UpdateTaskRequest request, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        TaskResponse response = taskService.updateTask(id, request, username);
+        TaskResponse response = taskService.updateTask(id, request, userId, ifMatch);
 
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        return ResponseEntity.status(HttpStatus.OK).eTag(TaskETags.forTask(response.id(), response.updatedAt())).body(response);
 
     }
 
     @PatchMapping("/{id}/status")
-    public ResponseEntity<TaskResponse> updateTaskStatus(@PathVariable Long id, @RequestBody @Valid UpdateStatusRequest request) {
+    public ResponseEntity<TaskResponse> updateTaskStatus(@PathVariable Long id, @RequestBody @Valid UpdateStatusRequest request, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        TaskResponse response = taskService.updateTaskStatus(id, request.status(), username);
+        TaskResponse response = taskService.updateTaskStatus(id, request.status(), userId, ifMatch);
 
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        return ResponseEntity.status(HttpStatus.OK).eTag(TaskETags.forTask(response.id(), response.updatedAt())).body(response);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
 
-        String username = getCurrentUsername();
+        Long userId = getCurrentUserId();
 
-        taskService.deleteTask(id, username);
+        taskService.deleteTask(id, userId);
 
         return ResponseEntity.noContent().build();
 
     }
 
     //Auxiliar method
-    private String getCurrentUsername() {
+    private Slice<?> loadTasks(Long userId, TaskFilter filter, TaskView view, boolean withTotal, Pageable pageable) {
+        boolean summary = view == TaskView.SUMMARY;
+
+        // qualquer filtro além de status vai para a consulta dinâmica (o total vem de um COUNT com os mesmos filtros)
+        if (!filter.isStatusOnly()) {
+            return summary
+                    ? taskService.getFilteredTaskSummaries(userId, filter, pageable, withTotal)
+                    : taskService.getFilteredTasks(userId, filter, pageable, withTotal);
+        }
+
+        TaskStatus status = filter.status();
+
+        if (summary) {
+            return taskService.getTaskSummaries(userId, status, pageable, withTotal);
+        }
+
+        // tasks.list.renderer=database: mesmo JSON, montado pelo PostgreSQL (para A/B em produção)
+        if (databaseRenderer) {
+            return taskService.getTaskJsonPage(userId, status, pageable, withTotal);
+        }
+
+        return withTotal
+                ? taskService.getTasksByUserAndStatus(userId, status, pageable)
+                : taskService.getTaskSliceByUserAndStatus(userId, status, pageable);
+    }
+
+    private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getName();
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return principal.getId();
     }
 }
 
@@ -0,0 +1,40 @@
+package com.carlos.todoapi.dto.request;
+
+import com.carlos.todoapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last search hit of a page in the {@code rank DESC, id DESC}
+ * order. The rank travels as its exact float bits so the next page resumes
+ * exactly after it.
+ */
+public record SearchCursor(
+
+        float rank,
+        Long id
+
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+
+            return new SearchCursor(
+                    Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, separator), 16)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
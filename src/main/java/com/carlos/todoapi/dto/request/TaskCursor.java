@@ -0,0 +1,46 @@
+package com.carlos.todoapi.dto.request;
+
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last task of a page in the {@code createdAt DESC, id DESC}
+ * order. Sent to clients as an opaque base64url string.
+ */
+public record TaskCursor(
+
+        LocalDateTime createdAt,
+        Long id
+
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(TaskResponse task) {
+        return new TaskCursor(task.createdAt(), task.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+
+            return new TaskCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.carlos.todoapi.dto.request;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Optional list filters bound from the query string of {@code GET /api/tasks}.
+ * Every null field is ignored; the rest are combined with AND. Ranges are
+ * inclusive.
+ */
+public record TaskFilter(
+
+        TaskStatus status,
+        TaskPriority priority,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate dueFrom,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        LocalDate dueTo,
+
+        // true = vencidas (dueDate antes de hoje e não concluídas); false = o contrário
+        Boolean overdue,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime createdFrom,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime createdTo,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime updatedFrom,
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime updatedTo
+
+) {
+
+    public static TaskFilter byStatus(TaskStatus status) {
+        return new TaskFilter(status, null, null, null, null, null, null, null, null);
+    }
+
+    // Só status (ou nada): atendido pelas consultas fixas e pelo cache de contagens
+    public boolean isStatusOnly() {
+        return priority == null && dueFrom == null && dueTo == null && overdue == null
+                && createdFrom == null && createdTo == null && updatedFrom == null && updatedTo == null;
+    }
+}
@@ -0,0 +1,6 @@
+package com.carlos.todoapi.dto.request;
+
+// ?view= da listagem: valor desconhecido vira 400 em vez de cair silenciosamente no FULL
+public enum TaskView {
+    FULL, SUMMARY
+}
@@ -0,0 +1,13 @@
+package com.carlos.todoapi.dto.response;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+
+        List<T> content,
+        String nextCursor, //null na última página
+        int size
+
+) {
+
+}
@@ -0,0 +1,14 @@
+package com.carlos.todoapi.dto.response;
+
+import java.time.LocalDateTime;
+
+// Tarefa concluída ainda fora do rollup diário (backfill do TaskCompletionRollup)
+public record TaskCompletion(
+
+        Long taskId,
+        Long userId,
+        LocalDateTime completedAt
+
+) {
+
+}
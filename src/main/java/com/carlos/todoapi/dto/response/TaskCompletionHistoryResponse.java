@@ -0,0 +1,16 @@
+package com.carlos.todoapi.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Um item por dia da faixa (dias sem conclusões vêm com 0)
+public record TaskCompletionHistoryResponse(
+
+        LocalDate from,
+        LocalDate to,
+        long total,
+        List<TaskDailyCompletion> days
+
+) {
+
+}
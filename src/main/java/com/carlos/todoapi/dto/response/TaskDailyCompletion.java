@@ -0,0 +1,12 @@
+package com.carlos.todoapi.dto.response;
+
+import java.time.LocalDate;
+
+public record TaskDailyCompletion(
+
+        LocalDate date,
+        Long completed
+
+) {
+
+}
@@ -0,0 +1,15 @@
+package com.carlos.todoapi.dto.response;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+
+public record TaskGroupCount(
+
+        Long userId,
+        TaskStatus status,
+        TaskPriority priority,
+        Long count
+
+) {
+
+}
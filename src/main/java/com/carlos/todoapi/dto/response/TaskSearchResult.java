@@ -0,0 +1,24 @@
+package com.carlos.todoapi.dto.response;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record TaskSearchResult(
+
+        Long id,
+        String title,
+        TaskStatus status,
+        TaskPriority priority,
+        LocalDate dueDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        float rank,
+        String titleHighlight, //HTML escapado, termos encontrados em <mark>
+        String snippet
+
+) {
+
+}
@@ -0,0 +1,18 @@
+package com.carlos.todoapi.dto.response;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+
+import java.util.Map;
+
+public record TaskStatsResponse(
+
+        long total,
+        Map<TaskStatus, Long> byStatus,
+        Map<TaskPriority, Long> byPriority,
+        long withoutPriority,
+        long overdue
+
+) {
+
+}
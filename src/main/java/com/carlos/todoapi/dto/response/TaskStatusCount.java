@@ -0,0 +1,12 @@
+package com.carlos.todoapi.dto.response;
+
+import com.carlos.todoapi.entity.TaskStatus;
+
+public record TaskStatusCount(
+
+        TaskStatus status,
+        Long count
+
+) {
+
+}
@@ -0,0 +1,10 @@
+package com.carlos.todoapi.dto.response;
+
+public record TaskSuggestion(
+
+        Long id,
+        String title
+
+) {
+
+}
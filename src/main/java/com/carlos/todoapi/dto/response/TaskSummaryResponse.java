@@ -0,0 +1,24 @@
+package com.carlos.todoapi.dto.response;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// TaskResponse sem a descrição (listagens que só mostram títulos)
+public record TaskSummaryResponse(
+
+        Long id,
+        String title,
+        TaskStatus status,
+        TaskPriority priority,
+        LocalDate dueDate,
+        Long userId,
+        String username,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+
+) {
+
+}
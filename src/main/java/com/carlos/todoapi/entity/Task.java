@@ -6,7 +6,10 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -17,8 +20,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "tasks")
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Task.CACHE_REGION)
 public class Task {
 
+    public static final String CACHE_REGION = "tasks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,13 +35,17 @@ public class Task {
     @NotBlank(message = "Title cannot be blank")
     private String title;
 
+    // TEXT sem limite: só é lido quando acessado (requer o bytecode enhancement do pom)
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Enumerated(EnumType.STRING)
+    // smallint com código do enum (ver TaskStatus/TaskPriority), não o nome
+    @Convert(converter = TaskStatusConverter.class)
+    @Column(nullable = false)
     private TaskStatus status = TaskStatus.PENDING;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = TaskPriorityConverter.class)
     @Column(nullable = true) //convenção por padrão
     private TaskPriority priority;
 
@@ -44,6 +55,9 @@ public class Task {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // quando entrou em COMPLETED (null fora dele, ou concluída antes do rollup diário ainda sem backfill)
+    private LocalDateTime completedAt;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,39 @@
+package com.carlos.todoapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Uma linha por usuário com os totais de tarefas (mantida por TaskCounters)
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "task_counters")
+public class TaskCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long pending;
+    private long inProgress;
+    private long completed;
+
+    private long noPriority;
+    private long lowPriority;
+    private long mediumPriority;
+    private long highPriority;
+
+    // só vale enquanto overdueAsOf for hoje; null = recalcular na próxima leitura
+    private long overdue;
+    private LocalDate overdueAsOf;
+
+    public TaskCounter(Long userId) {
+        this.userId = userId;
+    }
+}
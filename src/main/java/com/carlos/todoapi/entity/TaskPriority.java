@@ -1,5 +1,25 @@
 package com.carlos.todoapi.entity;
 
+// code em ordem crescente de prioridade: ORDER BY priority fica LOW < MEDIUM < HIGH
 public enum TaskPriority {
-    LOW, MEDIUM, HIGH
+    LOW(1), MEDIUM(2), HIGH(3);
+
+    private final short code;
+
+    TaskPriority(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TaskPriority fromCode(short code) {
+        for (TaskPriority priority : values()) {
+            if (priority.code == code) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task priority code: " + code);
+    }
 }
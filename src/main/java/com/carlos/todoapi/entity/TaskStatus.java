@@ -1,5 +1,25 @@
 package com.carlos.todoapi.entity;
 
+// code = valor gravado na coluna smallint (TaskStatusConverter); nunca reutilizar um código
 public enum TaskStatus {
-    PENDING, IN_PROGRESS, COMPLETED
+    PENDING(1), IN_PROGRESS(2), COMPLETED(3);
+
+    private final short code;
+
+    TaskStatus(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TaskStatus fromCode(short code) {
+        for (TaskStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown task status code: " + code);
+    }
 }
@@ -0,0 +1,14 @@
+package com.carlos.todoapi.exception;
+
+import lombok.Getter;
+
+@Getter
+public class AuthCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AuthCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -4,6 +4,7 @@ import com.carlos.todoapi.dto.response.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -94,6 +95,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    @ExceptionHandler(AuthCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleAuthCapacityExceededException(AuthCapacityExceededException ex, HttpServletRequest request) {
+
+        ErrorResponse error = buildErrorMessage(
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                request
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(TaskNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleTaskNotFoundException(TaskNotFoundException ex, HttpServletRequest request) {
 
@@ -106,6 +121,54 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex, HttpServletRequest request) {
+
+        ErrorResponse error = buildErrorMessage(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidSortException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSortException(InvalidSortException ex, HttpServletRequest request) {
+
+        ErrorResponse error = buildErrorMessage(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidDateRangeException(InvalidDateRangeException ex, HttpServletRequest request) {
+
+        ErrorResponse error = buildErrorMessage(
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex, HttpServletRequest request) {
+
+        ErrorResponse error = buildErrorMessage(
+                ex.getMessage(),
+                HttpStatus.PRECONDITION_FAILED,
+                request
+        );
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
     @ExceptionHandler(UnauthorizedAccessException.class)
     public ResponseEntity<ErrorResponse> handleUnauthorizedAccessException(UnauthorizedAccessException ex, HttpServletRequest request) {
 
@@ -0,0 +1,24 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // um INSERT só (save faria SELECT antes, o id é atribuído); logout repetido não falha
+    @Modifying
+    @Query("INSERT INTO RevokedToken (tokenId, expiresAt) VALUES (:tokenId, :expiresAt) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(@Param("tokenId") String tokenId, @Param("expiresAt") Instant expiresAt);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
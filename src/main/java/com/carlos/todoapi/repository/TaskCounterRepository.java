@@ -0,0 +1,54 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.entity.TaskCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskCounterRepository extends JpaRepository<TaskCounter, Long> {
+
+    // Incremento atômico no banco (sem ler antes): escritas concorrentes do mesmo usuário não se perdem
+    @Modifying
+    @Query("""
+            UPDATE TaskCounter c SET
+                c.pending = c.pending + :pending,
+                c.inProgress = c.inProgress + :inProgress,
+                c.completed = c.completed + :completed,
+                c.noPriority = c.noPriority + :noPriority,
+                c.lowPriority = c.lowPriority + :lowPriority,
+                c.mediumPriority = c.mediumPriority + :mediumPriority,
+                c.highPriority = c.highPriority + :highPriority
+            WHERE c.userId = :userId""")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("pending") long pending, @Param("inProgress") long inProgress, @Param("completed") long completed,
+                   @Param("noPriority") long noPriority, @Param("lowPriority") long lowPriority,
+                   @Param("mediumPriority") long mediumPriority, @Param("highPriority") long highPriority);
+
+    // Só ajusta se a contagem de vencidas é de hoje; senão ela será recontada na leitura
+    @Modifying
+    @Query("UPDATE TaskCounter c SET c.overdue = c.overdue + :delta WHERE c.userId = :userId AND c.overdueAsOf = :today")
+    int applyOverdueDelta(@Param("userId") Long userId, @Param("delta") long delta, @Param("today") LocalDate today);
+
+    @Modifying
+    @Query("UPDATE TaskCounter c SET c.overdue = :overdue, c.overdueAsOf = :today WHERE c.userId = :userId")
+    int resetOverdue(@Param("userId") Long userId, @Param("overdue") long overdue, @Param("today") LocalDate today);
+
+    // Linha zerada (a contagem vem depois, no repair); dois rebuilds simultâneos não colidem na PK
+    @Modifying
+    @Query("""
+            INSERT INTO TaskCounter (userId, pending, inProgress, completed, noPriority, lowPriority, mediumPriority, highPriority, overdue)
+            VALUES (:userId, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L)
+            ON CONFLICT DO NOTHING""")
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TaskCounter c WHERE c.userId IN :userIds")
+    List<TaskCounter> lockAll(@Param("userIds") Collection<Long> userIds);
+}
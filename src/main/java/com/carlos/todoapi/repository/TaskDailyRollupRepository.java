@@ -0,0 +1,29 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.dto.response.TaskDailyCompletion;
+import com.carlos.todoapi.entity.TaskDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TaskDailyRollupRepository extends JpaRepository<TaskDailyRollup, TaskDailyRollup.Key> {
+
+    // Incremento atômico no banco; 0 linhas = o dia ainda não tem linha
+    @Modifying
+    @Query("""
+            UPDATE TaskDailyRollup r SET r.completedCount = r.completedCount + :delta
+            WHERE r.userId = :userId AND r.completedOn = :day""")
+    int addCompleted(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("delta") long delta);
+
+    // faixa da PK (user_id, completed_on): lê só as linhas de rollup, nunca a tabela tasks
+    @Query("""
+            SELECT new com.carlos.todoapi.dto.response.TaskDailyCompletion(r.completedOn, r.completedCount)
+            FROM TaskDailyRollup r
+            WHERE r.userId = :userId AND r.completedOn BETWEEN :from AND :to
+            ORDER BY r.completedOn""")
+    List<TaskDailyCompletion> findRange(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
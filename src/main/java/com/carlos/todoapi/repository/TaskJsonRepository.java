@@ -0,0 +1,130 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.ToIntFunction;
+
+/**
+ * PostgreSQL-only read path that returns each task already rendered as JSON
+ * text, with the same field names, order and formatting Jackson produces for
+ * {@link com.carlos.todoapi.dto.response.TaskResponse}, escapes included.
+ * Used when {@code tasks.list.renderer=database}.
+ */
+@Repository
+public class TaskJsonRepository {
+
+    // Mesmo formato do Jackson para LocalDateTime: fração sem zeros à direita e sem ponto quando zero
+    private static final String TIMESTAMP_JSON = "rtrim(rtrim(to_char(%s, 'YYYY-MM-DD\"T\"HH24:MI:SS.US'), '0'), '.')";
+
+    // row_to_json gera JSON compacto (json_build_object coloca espaços em volta do ':').
+    // O LATERAL só dá nome aos campos: ORDER BY e LIMIT ficam na consulta de fora, que é a que define a ordem
+    private static final String SELECT_TASK_JSON = """
+            SELECT row_to_json(r)::text
+            FROM tasks t JOIN users u ON u.id = t.user_id
+            CROSS JOIN LATERAL (
+                SELECT t.id, t.title, t.description, %s AS status, %s AS priority,
+                       to_char(t.due_date, 'YYYY-MM-DD') AS "dueDate",
+                       u.id AS "userId", u.username,
+                       %s AS "createdAt", %s AS "updatedAt"
+            ) r
+            WHERE t.user_id = ?""".formatted(
+            codeToName("t.status", TaskStatus.values(), TaskStatus::getCode),
+            codeToName("t.priority", TaskPriority.values(), TaskPriority::getCode),
+            TIMESTAMP_JSON.formatted("t.created_at"),
+            TIMESTAMP_JSON.formatted("t.updated_at"));
+
+    // Só colunas conhecidas entram no ORDER BY (nada do request é concatenado no SQL); mesmas chaves de TaskSorts.SORTABLE
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "t.id",
+            "title", "t.title",
+            "priority", "t.priority",
+            "dueDate", "t.due_date",
+            "createdAt", "t.created_at",
+            "updatedAt", "t.updated_at"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskJsonRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks of the user as JSON strings, in the
+     * order of the pageable's sort, starting at the pageable's offset.
+     */
+    public List<String> findJsonByUserIdAndStatus(Long userId, TaskStatus status, Pageable pageable, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_TASK_JSON);
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+
+        if (status != null) {
+            sql.append(" AND t.status = ?");
+            args.add(status.getCode());
+        }
+
+        sql.append(orderBy(pageable.getSort()));
+        sql.append(" LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(pageable.getOffset());
+
+        return jdbcTemplate.queryForList(sql.toString(), String.class, args.toArray()).stream()
+                .map(TaskJsonRepository::uppercaseEscapes)
+                .toList();
+    }
+
+    // O PostgreSQL escapa controles com hex minúsculo (001b) e o Jackson com maiúsculo (001B): mesmo valor, texto
+    // (e ETag) diferente. Só mexe no hex depois de uma barra não escapada seguida de 'u'
+    static String uppercaseEscapes(String json) {
+        if (json.indexOf("\\u") < 0) {
+            return json;
+        }
+
+        char[] chars = json.toCharArray();
+        for (int i = 0; i < chars.length - 1; i++) {
+            if (chars[i] != '\\') {
+                continue;
+            }
+
+            if (chars[++i] == 'u') {
+                for (int j = i + 1; j <= i + 4 && j < chars.length; j++) {
+                    chars[j] = Character.toUpperCase(chars[j]);
+                }
+                i += 4;
+            }
+        }
+        return new String(chars);
+    }
+
+    // status/priority são smallint: o JSON precisa do nome do enum, como o Jackson escreve
+    private static <E extends Enum<E>> String codeToName(String column, E[] values, ToIntFunction<E> code) {
+        StringJoiner cases = new StringJoiner(" ", "CASE " + column + " ", " END");
+        for (E value : values) {
+            cases.add("WHEN " + code.applyAsInt(value) + " THEN '" + value.name() + "'");
+        }
+        return cases.toString();
+    }
+
+    // O pageable já passou por TaskSorts.indexed: uma propriedade fora do mapa é erro de programação, não do request
+    static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "").setEmptyValue("");
+
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("No column for sort property '" + order.getProperty() + "'");
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orderBy.toString();
+    }
+}
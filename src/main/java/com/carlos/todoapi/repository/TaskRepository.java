@@ -1,14 +1,140 @@
 package com.carlos.todoapi.repository;
 
+import com.carlos.todoapi.dto.response.TaskCompletion;
+import com.carlos.todoapi.dto.response.TaskGroupCount;
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskStatusCount;
+import com.carlos.todoapi.dto.response.TaskSuggestion;
+import com.carlos.todoapi.dto.response.TaskSummaryResponse;
 import com.carlos.todoapi.entity.Task;
 import com.carlos.todoapi.entity.TaskStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    // Leitura para listagens: projeta direto no DTO (sem entidade gerenciada, sem proxy do User)
+    String TASK_RESPONSE = """
+            SELECT new com.carlos.todoapi.dto.response.TaskResponse(
+                t.id, t.title, t.description, t.status, t.priority, t.dueDate,
+                u.id, u.username, t.createdAt, t.updatedAt)
+            FROM Task t JOIN t.user u""";
+
+    // Mesma leitura sem a coluna description (TEXT)
+    String TASK_SUMMARY = """
+            SELECT new com.carlos.todoapi.dto.response.TaskSummaryResponse(
+                t.id, t.title, t.status, t.priority, t.dueDate,
+                u.id, u.username, t.createdAt, t.updatedAt)
+            FROM Task t JOIN t.user u""";
 
     Page<Task> findByUserId(Long userId, Pageable pageable);
     Page<Task> findByUserIdAndStatus(Long userId, TaskStatus status, Pageable pageable);
 
+    // GET por id: projeção com a descrição, sem passar pela entidade (description é lazy)
+    @Query(TASK_RESPONSE + " WHERE t.id = :id AND t.user.id = :userId")
+    Optional<TaskResponse> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Só o updatedAt, para responder If-None-Match sem carregar a tarefa
+    @Query("SELECT t.updatedAt FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<LocalDateTime> findUpdatedAtByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Slice: mesma página sem o SELECT COUNT(*) (busca size + 1 para saber se há próxima)
+    @Query(TASK_RESPONSE + " WHERE t.user.id = :userId")
+    Slice<TaskResponse> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(TASK_RESPONSE + " WHERE t.user.id = :userId AND t.status = :status")
+    Slice<TaskResponse> findResponsesByUserIdAndStatus(@Param("userId") Long userId, @Param("status") TaskStatus status, Pageable pageable);
+
+    @Query(TASK_SUMMARY + " WHERE t.user.id = :userId")
+    Slice<TaskSummaryResponse> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(TASK_SUMMARY + " WHERE t.user.id = :userId AND t.status = :status")
+    Slice<TaskSummaryResponse> findSummariesByUserIdAndStatus(@Param("userId") Long userId, @Param("status") TaskStatus status, Pageable pageable);
+
+    // recontagem dos contadores (TaskCounters): um grupo por usuário/status/prioridade
+    @Query("""
+            SELECT new com.carlos.todoapi.dto.response.TaskGroupCount(t.user.id, t.status, t.priority, COUNT(t))
+            FROM Task t
+            WHERE t.user.id IN :userIds
+            GROUP BY t.user.id, t.status, t.priority""")
+    List<TaskGroupCount> countGroupsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId AND t.dueDate < :today AND t.status <> :completed")
+    long countOverdue(@Param("userId") Long userId, @Param("today") LocalDate today, @Param("completed") TaskStatus completed);
+
+    // Leitura das escritas: trava a linha até o commit, então ler o estado anterior (e comparar o ETag) e gravar
+    // viram uma operação só (uma segunda escrita da mesma tarefa espera e então vê a versão nova)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.id = :id")
+    Optional<Task> findByIdForUpdate(@Param("id") Long id);
+
+    // Backfill do rollup diário (TaskCompletionRollup). Status como literal (não parâmetro): o predicado tem que bater
+    // com o do índice parcial idx_tasks_unrolled_completions (V11) para o plano genérico poder usá-lo
+    @Query("""
+            SELECT DISTINCT t.user.id FROM Task t
+            WHERE t.status = com.carlos.todoapi.entity.TaskStatus.COMPLETED AND t.completedAt IS NULL AND t.user.id > :after
+            ORDER BY t.user.id""")
+    List<Long> findUserIdsWithUnrolledCompletions(@Param("after") Long after, Limit limit);
+
+    // concluídas sem completedAt, updatedAt como estimativa da data
+    @Query("""
+            SELECT new com.carlos.todoapi.dto.response.TaskCompletion(t.id, t.user.id, t.updatedAt)
+            FROM Task t
+            WHERE t.user.id IN :userIds AND t.status = com.carlos.todoapi.entity.TaskStatus.COMPLETED AND t.completedAt IS NULL""")
+    List<TaskCompletion> findUnrolledCompletions(@Param("userIds") Collection<Long> userIds, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.completedAt = t.updatedAt WHERE t.id IN :ids AND t.completedAt IS NULL")
+    int markRolledUp(@Param("ids") Collection<Long> ids);
+
+    // só id e título: carga do índice de sugestões (TaskSuggestIndex)
+    @Query("SELECT new com.carlos.todoapi.dto.response.TaskSuggestion(t.id, t.title) FROM Task t WHERE t.user.id = :userId")
+    List<TaskSuggestion> findSuggestionsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT new com.carlos.todoapi.dto.response.TaskStatusCount(t.status, COUNT(t))
+            FROM Task t
+            WHERE t.user.id = :userId
+            GROUP BY t.status""")
+    List<TaskStatusCount> countByStatus(@Param("userId") Long userId);
+
+    // Keyset: primeira página e páginas seguintes (created_at, id) < cursor, sem OFFSET nem COUNT
+    @Query(TASK_RESPONSE + """
+             WHERE t.user.id = :userId
+            ORDER BY t.createdAt DESC, t.id DESC""")
+    List<TaskResponse> findFirstKeysetPage(@Param("userId") Long userId, Limit limit);
+
+    @Query(TASK_RESPONSE + """
+             WHERE t.user.id = :userId
+              AND t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.id < :id)
+            ORDER BY t.createdAt DESC, t.id DESC""")
+    List<TaskResponse> findKeysetPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Limit limit);
+
+    @Query(TASK_RESPONSE + """
+             WHERE t.user.id = :userId AND t.status = :status
+            ORDER BY t.createdAt DESC, t.id DESC""")
+    List<TaskResponse> findFirstKeysetPageByStatus(@Param("userId") Long userId, @Param("status") TaskStatus status, Limit limit);
+
+    @Query(TASK_RESPONSE + """
+             WHERE t.user.id = :userId AND t.status = :status
+              AND t.createdAt <= :createdAt AND (t.createdAt < :createdAt OR t.id < :id)
+            ORDER BY t.createdAt DESC, t.id DESC""")
+    List<TaskResponse> findKeysetPageAfterByStatus(@Param("userId") Long userId, @Param("status") TaskStatus status,
+                                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
 }
@@ -0,0 +1,12 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.entity.Task;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface TaskRepositoryCustom {
+
+    // Filtro dinâmico projetado em TaskResponse ou TaskSummaryResponse; withTotal = false pula o COUNT e devolve um Slice
+    <T> Slice<T> findProjected(Specification<Task> spec, Class<T> projection, Pageable pageable, boolean withTotal);
+}
@@ -0,0 +1,85 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskSummaryResponse;
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    public TaskRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <T> Slice<T> findProjected(Specification<Task> spec, Class<T> projection, Pageable pageable, boolean withTotal) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<T> query = cb.createQuery(projection);
+        Root<Task> task = query.from(Task.class);
+        Join<Task, User> user = task.join("user");
+
+        query.select(cb.construct(projection, selections(projection, task, user)))
+                .where(spec.toPredicate(task, query, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), task, cb));
+
+        // sem total: busca um a mais só para saber se há próxima página
+        int limit = withTotal ? pageable.getPageSize() : pageable.getPageSize() + 1;
+        List<T> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+
+        if (!withTotal) {
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        }
+
+        return new PageImpl<>(rows, pageable, count(spec));
+    }
+
+    private long count(Specification<Task> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> task = query.from(Task.class);
+        query.select(cb.count(task)).where(spec.toPredicate(task, query, cb));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Mesma ordem de argumentos dos construtores dos DTOs (e de TASK_RESPONSE / TASK_SUMMARY)
+    private static Selection<?>[] selections(Class<?> projection, Root<Task> task, Join<Task, User> user) {
+        if (projection == TaskResponse.class) {
+            return new Selection<?>[]{
+                    task.get("id"), task.get("title"), task.get("description"), task.get("status"), task.get("priority"),
+                    task.get("dueDate"), user.get("id"), user.get("username"), task.get("createdAt"), task.get("updatedAt")
+            };
+        }
+
+        if (projection == TaskSummaryResponse.class) {
+            return new Selection<?>[]{
+                    task.get("id"), task.get("title"), task.get("status"), task.get("priority"),
+                    task.get("dueDate"), user.get("id"), user.get("username"), task.get("createdAt"), task.get("updatedAt")
+            };
+        }
+
+        throw new IllegalArgumentException("Unsupported task projection: " + projection.getName());
+    }
+}
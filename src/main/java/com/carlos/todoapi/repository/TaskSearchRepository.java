@@ -0,0 +1,101 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.dto.request.SearchCursor;
+import com.carlos.todoapi.dto.response.TaskSearchResult;
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL full-text search over the generated {@code tasks.search_vector}
+ * column (V5 migration). Ranked with {@code ts_rank}, paged by (rank, id) and
+ * highlighted with {@code ts_headline} only for the rows of the page.
+ */
+@Repository
+public class TaskSearchRepository {
+
+    // Marcadores que não aparecem em texto digitado: o texto é escapado em HTML e só depois viram <mark>
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+    private static final String HEADLINE_OPTIONS = "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL;
+
+    private static final String SEARCH = """
+            WITH q AS (SELECT websearch_to_tsquery('simple', ?) AS query),
+            hits AS (
+                SELECT t.id, t.title, t.description, t.status, t.priority, t.due_date, t.created_at, t.updated_at,
+                       ts_rank(t.search_vector, q.query) AS rank
+                FROM tasks t, q
+                WHERE t.user_id = ? AND t.search_vector @@ q.query
+            ),
+            page AS (
+                SELECT * FROM hits
+                %s
+                ORDER BY rank DESC, id DESC
+                LIMIT ?
+            )
+            SELECT page.*,
+                   ts_headline('simple', page.title, q.query, '%s') AS title_highlight,
+                   ts_headline('simple', coalesce(page.description, ''), q.query, '%s, MaxFragments=2, MaxWords=20, MinWords=5') AS snippet
+            FROM page, q
+            ORDER BY page.rank DESC, page.id DESC""";
+
+    private static final String AFTER_CURSOR = "WHERE rank < ?::real OR (rank = ?::real AND id < ?)";
+
+    private static final RowMapper<TaskSearchResult> ROW_MAPPER = (rs, rowNum) -> {
+        Short priority = rs.getObject("priority", Short.class);
+        Date dueDate = rs.getDate("due_date");
+
+        return new TaskSearchResult(
+                rs.getLong("id"),
+                rs.getString("title"),
+                TaskStatus.fromCode(rs.getShort("status")),
+                priority != null ? TaskPriority.fromCode(priority) : null,
+                dueDate != null ? dueDate.toLocalDate() : null,
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("updated_at").toLocalDateTime(),
+                rs.getFloat("rank"),
+                highlight(rs.getString("title_highlight")),
+                highlight(rs.getString("snippet"))
+        );
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TaskSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<TaskSearchResult> search(Long userId, String query, SearchCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(query);
+        args.add(userId);
+
+        if (after != null) {
+            args.add(after.rank());
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        args.add(limit);
+
+        String sql = SEARCH.formatted(after != null ? AFTER_CURSOR : "", HEADLINE_OPTIONS, HEADLINE_OPTIONS);
+
+        return jdbcTemplate.query(sql, ROW_MAPPER, args.toArray());
+    }
+
+    private static String highlight(String headline) {
+        if (headline == null || headline.isEmpty()) {
+            return headline;
+        }
+
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+}
@@ -0,0 +1,59 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.exception.InvalidSortException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sort whitelist for task listings. Each allowed property has a
+ * {@code (user_id, property, id)} index (V4/V6/V7), and the id is always added
+ * as a tie-breaker in the same direction, so every accepted sort is an index
+ * scan that stops at the page size and pages are stable.
+ */
+public final class TaskSorts {
+
+    public static final Set<String> SORTABLE = Set.of("createdAt", "updatedAt", "dueDate", "priority", "title", "id");
+
+    private static final String TIE_BREAKER = "id";
+    private static final Sort DEFAULT = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private TaskSorts() {
+    }
+
+    // Uma propriedade só: duas chaves (ex.: priority,title) não têm índice e virariam sort em memória
+    public static Pageable indexed(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .filter(order -> !order.getProperty().equals(TIE_BREAKER))
+                .toList();
+
+        if (orders.size() > 1) {
+            throw new InvalidSortException("Tasks can be sorted by a single property");
+        }
+
+        Sort.Order key = orders.isEmpty()
+                ? pageable.getSort().getOrderFor(TIE_BREAKER)
+                : orders.getFirst();
+
+        if (key == null) {
+            return withSort(pageable, DEFAULT);
+        }
+
+        if (!SORTABLE.contains(key.getProperty())) {
+            throw new InvalidSortException("Invalid sort property '" + key.getProperty() + "'. Allowed: " + String.join(", ", SORTABLE.stream().sorted().toList()));
+        }
+
+        return withSort(pageable, Sort.by(key.getDirection(), key.getProperty()));
+    }
+
+    // ignoreCase/nulls do request são descartados: só a ordem padrão bate com o índice
+    private static Pageable withSort(Pageable pageable, Sort sort) {
+        Sort.Order key = sort.iterator().next();
+        Sort full = key.getProperty().equals(TIE_BREAKER) ? sort : sort.and(Sort.by(key.getDirection(), TIE_BREAKER));
+
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), full);
+    }
+}
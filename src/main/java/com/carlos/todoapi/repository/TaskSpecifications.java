@@ -0,0 +1,83 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.dto.request.TaskFilter;
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.TaskStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Predicates for {@link TaskFilter}. Each criterion maps to a plain column
+ * comparison so the indexes of V4/V6 can be used (no functions on the
+ * columns).
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> forUser(Long userId, TaskFilter filter, LocalDate today) {
+        Specification<Task> spec = ownedBy(userId);
+
+        if (filter == null) {
+            return spec;
+        }
+
+        if (filter.status() != null) {
+            spec = spec.and(equalTo("status", filter.status()));
+        }
+        if (filter.priority() != null) {
+            spec = spec.and(equalTo("priority", filter.priority()));
+        }
+        if (filter.dueFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), filter.dueFrom()));
+        }
+        if (filter.dueTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), filter.dueTo()));
+        }
+        if (filter.overdue() != null) {
+            spec = spec.and(filter.overdue() ? overdue(today) : notOverdue(today));
+        }
+        if (filter.createdFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), filter.createdTo()));
+        }
+        if (filter.updatedFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("updatedAt"), filter.updatedFrom()));
+        }
+        if (filter.updatedTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("updatedAt"), filter.updatedTo()));
+        }
+
+        return spec;
+    }
+
+    // pela FK (t.user_id), sem join com users
+    public static Specification<Task> ownedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // vencida = prazo antes de hoje e ainda não concluída (sem prazo nunca vence)
+    public static Specification<Task> overdue(LocalDate today) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThan(root.get("dueDate"), today),
+                cb.notEqual(root.get("status"), TaskStatus.COMPLETED)
+        );
+    }
+
+    // não é só o NOT de overdue: NOT com due_date NULL daria NULL e deixaria de fora as tarefas sem prazo
+    public static Specification<Task> notOverdue(LocalDate today) {
+        return (root, query, cb) -> cb.or(
+                cb.isNull(root.get("dueDate")),
+                cb.greaterThanOrEqualTo(root.get("dueDate"), today),
+                cb.equal(root.get("status"), TaskStatus.COMPLETED)
+        );
+    }
+
+    private static Specification<Task> equalTo(String attribute, Object value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
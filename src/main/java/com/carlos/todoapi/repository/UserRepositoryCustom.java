@@ -0,0 +1,11 @@
+package com.carlos.todoapi.repository;
+
+import com.carlos.todoapi.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Busca pelo natural id (username): passa pelo cache de segundo nível, ao contrário de findByUsername
+    Optional<User> loadByUsername(String username);
+}
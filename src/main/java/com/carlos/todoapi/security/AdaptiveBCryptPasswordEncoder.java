@@ -0,0 +1,87 @@
+package com.carlos.todoapi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose strength is picked at startup from a latency budget.
+ * Hashes stored with any other cost (higher or lower) are reported by
+ * {@link #upgradeEncoding(String)}, so they get rehashed on the next
+ * successful login.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Measures hash time and returns an encoder with the highest strength
+     * (within {@code [minStrength, maxStrength]}) that stays inside the budget.
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrated(Duration budget, int minStrength, int maxStrength) {
+        int chosen = minStrength;
+
+        // cada +1 no custo dobra o tempo: para no primeiro que estoura o orçamento
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long nanos = measure(candidate);
+            log.debug("BCrypt strength {} takes {} ms", candidate, nanos / 1_000_000);
+
+            if (nanos > budget.toNanos()) {
+                break;
+            }
+            chosen = candidate;
+        }
+
+        log.info("BCrypt strength calibrated to {} (budget {} ms)", chosen, budget.toMillis());
+        return new AdaptiveBCryptPasswordEncoder(chosen);
+    }
+
+    // mediana de algumas amostras, depois de um aquecimento
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration-warmup");
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-sample");
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            throw new IllegalArgumentException("Encoded password does not look like BCrypt");
+        }
+
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
@@ -2,30 +2,50 @@ package com.carlos.todoapi.security;
 
 import com.carlos.todoapi.entity.User;
 import com.carlos.todoapi.repository.UserRepository;
+import com.carlos.todoapi.service.CacheInvalidationBus;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, CacheInvalidationBus invalidationBus) {
         this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.loadByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .roles("USER")  // por enquanto (todos com papel de USER)
-                .build();
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                AuthorityUtils.createAuthorityList("ROLE_USER")  // por enquanto (todos com papel de USER)
+        );
     }
-}
 
+    // Chamado pelo DaoAuthenticationProvider após login quando o hash precisa de outro custo
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) userDetails;
+
+        User user = userRepository.findById(principal.getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + principal.getUsername()));
+
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        invalidationBus.userChanged(user.getId());
+
+        return new UserPrincipal(principal.getId(), principal.getUsername(), newPassword, principal.getAuthorities());
+    }
+}
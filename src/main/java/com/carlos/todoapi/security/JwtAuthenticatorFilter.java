@@ -1,12 +1,15 @@
 package com.carlos.todoapi.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -19,13 +22,21 @@ import java.io.IOException;
 public class JwtAuthenticatorFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenDenylist tokenDenylist;
     private final CustomUserDetailsService userDetailsService;
+    private final boolean statelessPrincipal;
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticatorFilter.class);
 
 
-    public JwtAuthenticatorFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticatorFilter(JwtUtil jwtUtil, VerifiedTokenCache tokenCache, TokenDenylist tokenDenylist,
+                                  CustomUserDetailsService userDetailsService,
+                                  @Value("${jwt.stateless-principal:true}") boolean statelessPrincipal) {
         this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.tokenDenylist = tokenDenylist;
         this.userDetailsService = userDetailsService;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -34,7 +45,7 @@ public class JwtAuthenticatorFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String token;
-        final String username;
+        final VerifiedToken verifiedToken;
 
         //verifica se o header vem como Bearer Token
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,31 +55,54 @@ public class JwtAuthenticatorFilter extends OncePerRequestFilter {
 
         token = authHeader.substring(7); //pega o token (tira o Bearer)
 
-        username = jwtUtil.extractUsername(token); //pega o user
+        //valida assinatura e expiração uma única vez (ou reaproveita do cache)
+        try {
+            verifiedToken = tokenCache.getOrVerify(token, jwtUtil::verifyToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT for URI {}: {}", request.getRequestURI(), e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        //token revogado via logout (checagem em memória, sem banco)
+        if (tokenDenylist.isRevoked(verifiedToken.tokenId())) {
+            log.debug("Revoked JWT used for URI {}", request.getRequestURI());
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         //verifica se ainda não está autenticado
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verifiedToken.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
             // pega os dados do user
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            //valida o token
-            if (jwtUtil.validateToken(token, userDetails)) {
-                // autentica com spring security
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            UserDetails userDetails = resolvePrincipal(verifiedToken);
 
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+            // autentica com spring security
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                //regitra user como autenticado
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            authentication.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request)
+            );
 
-            }
+            //regitra user como autenticado
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
 
         // continua filtros
         filterChain.doFilter(request, response);
 
     }
+
+    // Monta o principal direto das claims; só vai ao banco para tokens sem uid/roles
+    private UserDetails resolvePrincipal(VerifiedToken verifiedToken) {
+        if (statelessPrincipal && verifiedToken.hasIdentityClaims()) {
+            return UserPrincipal.fromToken(
+                    verifiedToken.userId(),
+                    verifiedToken.subject(),
+                    AuthorityUtils.createAuthorityList(verifiedToken.roles())
+            );
+        }
+
+        return userDetailsService.loadUserByUsername(verifiedToken.subject());
+    }
 }
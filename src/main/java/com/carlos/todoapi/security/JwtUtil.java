@@ -1,22 +1,32 @@
 package com.carlos.todoapi.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 
+import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,7 +34,39 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    // Chave e parser são imutáveis e thread-safe: criados uma vez só
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        byte[] secretBytes = Base64.getDecoder().decode(secret);
+        this.signingKey = new SecretKeySpec(secretBytes, 0, secretBytes.length, "HmacSHA256");
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     //Methods
+    public String generateToken(UserPrincipal principal) {
+        List<String> roles = principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        Date expirationDate = new Date(System.currentTimeMillis() + expiration);
+
+        // uid e roles permitem montar o principal sem consultar o banco
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(principal.getUsername())
+                .claim(USER_ID_CLAIM, principal.getId())
+                .claim(ROLES_CLAIM, roles)
+                .issuedAt(new Date())
+                .expiration(expirationDate)
+                .signWith(signingKey)
+                .compact();
+    }
+
     public String generateToken(String username) {
 
 
@@ -34,23 +76,41 @@ public class JwtUtil {
 
         //Construindo o token Jwt
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(expirationDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
     }
 
-
+    /**
+     * Parses and verifies the token once (signature and expiration).
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        Claims claims = extractAllClaims(token);
+
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                extractRoles(claims),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null
+        );
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // o parser já rejeita tokens expirados, então basta uma verificação
+        final VerifiedToken verified = verifyToken(token);
+        return verified.subject().equals(userDetails.getUsername());
     }
 
     public boolean isTokenExpired(String token) {
@@ -65,20 +125,20 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return null;
+        }
+        return values.stream().map(String::valueOf).toList();
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    //Convertendo a key para bytes e secretKey
-    private SecretKey getSigningKey() {
-        byte[] secretBytes = Base64.getDecoder().decode(secret);
-        return new SecretKeySpec(secretBytes, 0, secretBytes.length, "HmacSHA256");
-    }
-
 
 
 }
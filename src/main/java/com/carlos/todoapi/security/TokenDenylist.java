@@ -0,0 +1,78 @@
+package com.carlos.todoapi.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked token ids (jti). The hot path only touches the
+ * Bloom filter; the exact map is consulted just on a Bloom hit. Entries live
+ * until the token itself would have expired.
+ */
+@Component
+public class TokenDenylist {
+
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private long filterCapacity;
+
+    public TokenDenylist(@Value("${jwt.denylist.expected-revocations:100000}") long expectedRevocations,
+                         @Value("${jwt.denylist.false-positive-rate:0.01}") double falsePositiveRate,
+                         MeterRegistry meterRegistry) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.filterCapacity = expectedRevocations;
+
+        Gauge.builder("jwt.denylist.size", revoked, Map::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    public synchronized void revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        revoked.put(tokenId, expiresAt);
+        filter.put(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+
+        Instant expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    // Bloom filter não remove itens: reconstrói só com as revogações ainda válidas
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        Instant now = Instant.now();
+        boolean removed = revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+
+        // também cresce quando passou da capacidade (senão a taxa de falso positivo sobe)
+        if (removed || revoked.size() > filterCapacity) {
+            long capacity = Math.max(expectedRevocations, revoked.size() * 2L);
+            BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            this.filter = rebuilt;
+            this.filterCapacity = capacity;
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.carlos.todoapi.security;
+
+import com.carlos.todoapi.entity.RevokedToken;
+import com.carlos.todoapi.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Durable record of revoked tokens ({@code revoked_tokens}). The hot path
+ * still only reads {@link TokenDenylist}; this table is what a node reloads
+ * from when it starts, or when its invalidation listener reconnects and may
+ * have missed revocations broadcast by other nodes.
+ */
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenDenylist tokenDenylist;
+
+    public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository, TokenDenylist tokenDenylist) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenDenylist = tokenDenylist;
+    }
+
+    @Transactional
+    public void save(String tokenId, Instant expiresAt) {
+        if (tokenId != null && expiresAt != null && expiresAt.isAfter(Instant.now())) {
+            revokedTokenRepository.insertIfAbsent(tokenId, expiresAt);
+        }
+    }
+
+    // só as ainda válidas: o resto já expirou e seria recusado de qualquer jeito
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(Instant.now());
+        active.forEach(token -> tokenDenylist.revoke(token.getTokenId(), token.getExpiresAt()));
+
+        log.info("Loaded {} revoked tokens", active.size());
+    }
+
+    @Transactional
+    @Scheduled(cron = "${jwt.denylist.store-purge-cron:0 0 * * * *}")
+    public void purgeExpired() {
+        revokedTokenRepository.deleteExpired(Instant.now());
+    }
+}
@@ -0,0 +1,35 @@
+package com.carlos.todoapi.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Usuário autenticado: carrega o id para que os serviços não precisem buscar o user de novo
+@Getter
+public class UserPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    // Principal montado a partir das claims do token (sem senha)
+    public static UserPrincipal fromToken(Long id, String username, Collection<? extends GrantedAuthority> authorities) {
+        return new UserPrincipal(id, username, null, authorities);
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal[id=" + id + ", username=" + username + "]";
+    }
+}
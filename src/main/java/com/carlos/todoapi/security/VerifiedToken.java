@@ -0,0 +1,20 @@
+package com.carlos.todoapi.security;
+
+import java.time.Instant;
+import java.util.List;
+
+// Claims de um token cuja assinatura e expiração já foram verificadas
+public record VerifiedToken(
+        String tokenId,
+        String subject,
+        Long userId,
+        List<String> roles,
+        Instant expiresAt,
+        Instant issuedAt
+) {
+
+    // Tokens antigos não têm uid/roles e precisam buscar o user no banco
+    public boolean hasIdentityClaims() {
+        return userId != null && roles != null;
+    }
+}
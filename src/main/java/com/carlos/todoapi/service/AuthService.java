@@ -9,7 +9,14 @@ import com.carlos.todoapi.exception.EmailAlreadyExistsException;
 import com.carlos.todoapi.exception.UserAlreadyExistsException;
 import com.carlos.todoapi.repository.UserRepository;
 import com.carlos.todoapi.security.JwtUtil;
+import com.carlos.todoapi.security.TokenDenylist;
+import com.carlos.todoapi.security.TokenRevocationStore;
+import com.carlos.todoapi.security.UserPrincipal;
+import com.carlos.todoapi.security.VerifiedToken;
+import com.carlos.todoapi.security.VerifiedTokenCache;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,38 +24,47 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+
 @Service
 public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final TokenDenylist tokenDenylist;
+    private final TokenRevocationStore revocationStore;
+    private final VerifiedTokenCache tokenCache;
+    private final CacheInvalidationBus invalidationBus;
 
     @Autowired
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                       TokenDenylist tokenDenylist, TokenRevocationStore revocationStore, VerifiedTokenCache tokenCache, CacheInvalidationBus invalidationBus) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.tokenDenylist = tokenDenylist;
+        this.revocationStore = revocationStore;
+        this.tokenCache = tokenCache;
+        this.invalidationBus = invalidationBus;
     }
 
 
     public RegisterResponse registerUser(RegisterRequest request) {
 
-        if (userRepository.existsByUsername(request.username())) {
-            throw new UserAlreadyExistsException("User already exist!");
-        }
-
-        if (userRepository.existsByEmail(request.email())) {
-            throw new EmailAlreadyExistsException("Email already exist!");
-        }
-
         User user = new User();
         user.setUsername(request.username());
         user.setEmail(request.email());
         user.setPassword(passwordEncoder.encode(request.password()));
 
-        User saved = userRepository.save(user);
+        // um único INSERT: as constraints UNIQUE do banco decidem se já existe
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicateUser(e);
+        }
 
         return new RegisterResponse(
                 saved.getId(),
@@ -58,6 +74,29 @@ public class AuthService {
         );
     }
 
+    private RuntimeException translateDuplicateUser(DataIntegrityViolationException e) {
+        String constraint = violatedConstraint(e);
+
+        if (constraint != null && constraint.contains(User.USERNAME_CONSTRAINT)) {
+            return new UserAlreadyExistsException("User already exist!");
+        }
+
+        if (constraint != null && constraint.contains(User.EMAIL_CONSTRAINT)) {
+            return new EmailAlreadyExistsException("Email already exist!");
+        }
+
+        return e;
+    }
+
+    private String violatedConstraint(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
     public LoginResponse loginUser(LoginRequest request) {
         try {
             Authentication authentication = authenticationManager.authenticate(
@@ -67,7 +106,9 @@ public class AuthService {
                     )
             );
 
-            String token = jwtUtil.generateToken(authentication.getName());
+            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+
+            String token = jwtUtil.generateToken(principal);
 
             Long expiresIn = jwtUtil.getExpiration(); //avaliar a annotation @Getter no atributo do JwtUtil
 
@@ -82,4 +123,15 @@ public class AuthService {
             throw new BadCredentialsException("Invalid username or password");
         }
     }
+
+    // Revoga o token até ele expirar; tokens sem jti (emitidos antes) não são revogáveis.
+    // Gravado no banco antes do aviso: um nó que perca o NOTIFY recupera a revogação de lá
+    public void logoutUser(String token) {
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+
+        revocationStore.save(verified.tokenId(), verified.expiresAt());
+        tokenDenylist.revoke(verified.tokenId(), verified.expiresAt());
+        tokenCache.invalidate(token);
+        invalidationBus.tokenRevoked(verified.tokenId(), verified.expiresAt());
+    }
 }
@@ -0,0 +1,269 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.User;
+import com.carlos.todoapi.security.TokenDenylist;
+import com.carlos.todoapi.security.TokenRevocationStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Propagates cache invalidations to the other instances through PostgreSQL
+ * LISTEN/NOTIFY. Writes only enqueue an event; a scheduled flush coalesces
+ * duplicates and sends them in as few NOTIFY payloads as possible. Each node
+ * keeps one dedicated connection (outside the pool) listening on the channel.
+ *
+ * <p>Events: {@code t:<userId>:<taskId>} (task changed), {@code u:<userId>}
+ * (user changed) and {@code r:<jti>:<expEpochSecond>} (token revoked).
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "todoapi_invalidation";
+
+    // limite do NOTIFY é 8000 bytes; sobra espaço para o id do nó
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int LISTEN_TIMEOUT_MS = 5_000;
+    private static final long RECONNECT_DELAY_MS = 2_000;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final TaskListCache taskListCache;
+    private final TaskCountCache taskCountCache;
+    private final TaskSuggestIndex taskSuggestIndex;
+    private final TokenDenylist tokenDenylist;
+    private final TokenRevocationStore revocationStore;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                TaskListCache taskListCache,
+                                TaskCountCache taskCountCache,
+                                TaskSuggestIndex taskSuggestIndex,
+                                TokenDenylist tokenDenylist,
+                                TokenRevocationStore revocationStore,
+                                EntityManagerFactory entityManagerFactory,
+                                @Value("${invalidation.bus.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.taskListCache = taskListCache;
+        this.taskCountCache = taskCountCache;
+        this.taskSuggestIndex = taskSuggestIndex;
+        this.tokenDenylist = tokenDenylist;
+        this.revocationStore = revocationStore;
+        this.entityManagerFactory = entityManagerFactory;
+
+        // só existe no PostgreSQL (nos testes com H2 fica desligado)
+        String url = dataSourceProperties.determineUrl();
+        this.enabled = enabled && url != null && url.startsWith("jdbc:postgresql:");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled");
+            return;
+        }
+
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    public void taskChanged(Long userId, Long taskId) {
+        enqueue("t:" + userId + ":" + taskId);
+    }
+
+    public void userChanged(Long userId) {
+        enqueue("u:" + userId);
+    }
+
+    public void tokenRevoked(String tokenId, Instant expiresAt) {
+        if (tokenId != null && expiresAt != null) {
+            enqueue("r:" + tokenId + ":" + expiresAt.getEpochSecond());
+        }
+    }
+
+    private void enqueue(String event) {
+        if (!enabled) {
+            return;
+        }
+
+        // dentro de transação só avisa depois do commit: antes disso os outros nós recarregariam o valor antigo
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(event);
+                }
+            });
+            return;
+        }
+
+        pending.add(event);
+    }
+
+    // Em rajadas de escrita, eventos iguais dentro do intervalo viram um só
+    @Scheduled(fixedDelayString = "${invalidation.bus.flush-interval-ms:50}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int length = nodeId.length();
+
+        Iterator<String> events = pending.iterator();
+        while (events.hasNext()) {
+            String event = events.next();
+            events.remove();
+
+            if (length + event.length() + 1 > MAX_PAYLOAD_BYTES) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                length = nodeId.length();
+            }
+            batch.add(event);
+            length += event.length() + 1;
+        }
+        batches.add(batch);
+
+        for (int i = 0; i < batches.size(); i++) {
+            try {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, nodeId + "," + String.join(",", batches.get(i)));
+            } catch (RuntimeException e) {
+                // volta para a fila (este lote e os seguintes) e tenta no próximo flush; o Set deduplica enquanto o banco não volta
+                log.warn("Could not publish cache invalidation, will retry: {}", e.getMessage());
+                for (List<String> failed : batches.subList(i, batches.size())) {
+                    pending.addAll(failed);
+                }
+                return;
+            }
+        }
+    }
+
+    void onNotification(String payload) {
+        String[] parts = payload.split(",");
+        if (parts[0].equals(nodeId)) {
+            return; // o próprio nó já invalidou localmente
+        }
+
+        for (int i = 1; i < parts.length; i++) {
+            apply(parts[i]);
+        }
+    }
+
+    private void apply(String event) {
+        String[] fields = event.split(":");
+
+        try {
+            switch (fields[0]) {
+                case "t" -> {
+                    Long userId = Long.valueOf(fields[1]);
+                    taskListCache.invalidate(userId);
+                    taskCountCache.invalidate(userId);
+                    taskSuggestIndex.invalidate(userId);
+                    entityManagerFactory.getCache().evict(Task.class, Long.valueOf(fields[2]));
+                }
+                case "u" -> entityManagerFactory.getCache().evict(User.class, Long.valueOf(fields[1]));
+                case "r" -> tokenDenylist.revoke(fields[1], Instant.ofEpochSecond(Long.parseLong(fields[2])));
+                default -> log.debug("Ignoring unknown invalidation event {}", event);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed invalidation event {}", event);
+        }
+    }
+
+    // Depois de (re)conectar não dá para saber o que foi perdido: limpa tudo que é local.
+    // Revogações não podem ser limpas, só somadas: relê as que estão gravadas no banco
+    private void invalidateAll() {
+        taskListCache.invalidateAll();
+        taskCountCache.invalidateAll();
+        taskSuggestIndex.invalidateAll();
+        entityManagerFactory.getCache().evictAll();
+        revocationStore.reload();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                invalidateAll();
+                log.info("Listening for cache invalidations on channel {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected: {}", e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
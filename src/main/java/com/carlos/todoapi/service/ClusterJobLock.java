@@ -0,0 +1,68 @@
+package com.carlos.todoapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Keeps a scheduled batch job to one instance at a time with a PostgreSQL
+ * session advisory lock, held on one pooled connection while the job runs.
+ * The other instances skip that run instead of waiting. If the holder dies,
+ * its connection closes and the lock is released. Outside PostgreSQL (tests
+ * on H2) the job simply runs.
+ */
+@Component
+public class ClusterJobLock {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterJobLock.class);
+
+    // primeira metade da chave (int, int): separa os locks desta aplicação de outros no mesmo banco
+    private static final int LOCK_NAMESPACE = 0x746F646F; // "todo"
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClusterJobLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Runs {@code job} if no other instance is running the job with this name; returns whether it ran. */
+    public boolean runExclusively(String jobName, Runnable job) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                job.run();
+                return true;
+            }
+
+            int key = jobName.hashCode();
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?, ?)", key)) {
+                log.info("Skipping job {}: running on another instance", jobName);
+                return false;
+            }
+
+            try {
+                job.run();
+                return true;
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?, ?)", key);
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, int key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
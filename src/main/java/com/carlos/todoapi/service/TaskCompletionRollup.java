@@ -0,0 +1,191 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.response.TaskCompletion;
+import com.carlos.todoapi.dto.response.TaskCompletionHistoryResponse;
+import com.carlos.todoapi.dto.response.TaskDailyCompletion;
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.TaskDailyRollup;
+import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.exception.InvalidDateRangeException;
+import com.carlos.todoapi.repository.TaskCounterRepository;
+import com.carlos.todoapi.repository.TaskDailyRollupRepository;
+import com.carlos.todoapi.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completed tasks per user and day in {@code task_daily_rollup}, so the
+ * productivity history is a primary-key range read that never touches the
+ * tasks table. {@link TaskService} moves a task into or out of the rollup in
+ * the same transaction as its status change, keyed by {@code completedAt}; a
+ * scheduled backfill counts completed tasks that have no {@code completedAt}
+ * yet (completed before the rollup existed, or by instances without this code).
+ */
+@Component
+public class TaskCompletionRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCompletionRollup.class);
+
+    private final TaskDailyRollupRepository rollupRepository;
+    private final TaskCounterRepository counterRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ClusterJobLock jobLock;
+    private final int backfillBatchSize;
+    private final int maxDays;
+
+    public TaskCompletionRollup(TaskDailyRollupRepository rollupRepository,
+                                TaskCounterRepository counterRepository,
+                                TaskRepository taskRepository,
+                                PlatformTransactionManager transactionManager,
+                                EntityManager entityManager,
+                                ClusterJobLock jobLock,
+                                @Value("${tasks.rollup.backfill-batch-size:500}") int backfillBatchSize,
+                                @Value("${tasks.rollup.max-days:366}") int maxDays) {
+        this.rollupRepository = rollupRepository;
+        this.counterRepository = counterRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.jobLock = jobLock;
+        this.backfillBatchSize = backfillBatchSize;
+        this.maxDays = maxDays;
+    }
+
+    public void taskCreated(Long userId, Task task) {
+        statusChanged(userId, task, null);
+    }
+
+    // previous vem da leitura travada do TaskService (contadores e tarefa): duas conclusões concorrentes da mesma
+    // tarefa não somam as duas, e duas do mesmo usuário não tentam inserir a mesma linha de dia ao mesmo tempo.
+    // Não há recontagem depois: tarefas concluídas e apagadas continuam no histórico, então a tabela tasks
+    // não serve de referência para corrigir o rollup
+    public void statusChanged(Long userId, Task task, TaskStatus previous) {
+        boolean wasCompleted = previous == TaskStatus.COMPLETED;
+        boolean isCompleted = task.getStatus() == TaskStatus.COMPLETED;
+
+        if (!wasCompleted && isCompleted) {
+            LocalDateTime now = LocalDateTime.now();
+            task.setCompletedAt(now);
+            add(userId, now.toLocalDate(), 1);
+        } else if (wasCompleted && !isCompleted) {
+            // sem completedAt a conclusão nunca entrou no rollup: não há o que descontar
+            if (task.getCompletedAt() != null) {
+                add(userId, task.getCompletedAt().toLocalDate(), -1);
+            }
+            task.setCompletedAt(null);
+        }
+    }
+
+    // Só lê as linhas existentes da faixa; os dias sem linha são preenchidos com 0 aqui
+    public TaskCompletionHistoryResponse getHistory(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+
+        if (start.isAfter(end)) {
+            throw new InvalidDateRangeException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new InvalidDateRangeException("Date range must not exceed " + maxDays + " days");
+        }
+
+        Map<LocalDate, Long> completedByDay = new HashMap<>();
+        for (TaskDailyCompletion row : rollupRepository.findRange(userId, start, end)) {
+            completedByDay.put(row.date(), row.completed());
+        }
+
+        List<TaskDailyCompletion> days = new ArrayList<>();
+        long total = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            long completed = completedByDay.getOrDefault(day, 0L);
+            days.add(new TaskDailyCompletion(day, completed));
+            total += completed;
+        }
+
+        return new TaskCompletionHistoryResponse(start, end, total, days);
+    }
+
+    @Scheduled(initialDelayString = "${tasks.rollup.backfill-initial-delay-ms:60000}",
+            fixedDelayString = "${tasks.rollup.backfill-interval-ms:3600000}")
+    public void backfillAll() {
+        jobLock.runExclusively("task-rollup-backfill", this::backfillAllUsers);
+    }
+
+    // Só visita usuários com algo a contar (índice parcial, vazio depois do primeiro backfill):
+    // uma execução sem pendências não varre tarefas nem trava contadores
+    private void backfillAllUsers() {
+        long after = 0;
+        int backfilled = 0;
+
+        // um lote de usuários por transação, como o reparo dos contadores
+        List<Long> userIds;
+        while (!(userIds = taskRepository.findUserIdsWithUnrolledCompletions(after, Limit.of(backfillBatchSize))).isEmpty()) {
+            List<Long> batch = userIds;
+            backfilled += transactionTemplate.execute(status -> backfill(batch));
+            after = batch.getLast();
+        }
+
+        if (backfilled > 0) {
+            log.info("Daily completion rollup backfilled with {} tasks", backfilled);
+        }
+    }
+
+    // Trava as linhas de contador do lote (as mesmas que as escritas travam): nenhuma conclusão do usuário
+    // muda no meio. Marca só os ids que contou, então rodar de novo não conta duas vezes
+    private int backfill(List<Long> userIds) {
+        counterRepository.lockAll(userIds);
+
+        int backfilled = 0;
+        List<TaskCompletion> completions;
+        while (!(completions = taskRepository.findUnrolledCompletions(userIds, Limit.of(backfillBatchSize))).isEmpty()) {
+            Map<TaskDailyRollup.Key, Long> perDay = new HashMap<>();
+            List<Long> taskIds = new ArrayList<>();
+
+            for (TaskCompletion completion : completions) {
+                perDay.merge(new TaskDailyRollup.Key(completion.userId(), completion.completedAt().toLocalDate()), 1L, Long::sum);
+                taskIds.add(completion.taskId());
+            }
+
+            perDay.forEach((key, count) -> add(key.getUserId(), key.getCompletedOn(), count));
+
+            // UPDATE em massa em Task também esvazia a região "tasks" do cache de segundo nível; só roda quando há o que marcar
+            int marked = taskRepository.markRolledUp(taskIds);
+            backfilled += marked;
+            if (marked == 0) {
+                break;
+            }
+        }
+        return backfilled;
+    }
+
+    private void add(Long userId, LocalDate day, long delta) {
+        int updated = rollupRepository.addCompleted(userId, day, delta);
+        forget(userId, day);
+
+        // primeira conclusão do dia cria a linha; um desconto sem linha não tem o que desfazer
+        if (updated == 0 && delta > 0) {
+            rollupRepository.save(new TaskDailyRollup(userId, day, delta));
+        }
+    }
+
+    // mesmo motivo de TaskCounters.forget: o UPDATE em massa não atualiza uma cópia já carregada no contexto
+    private void forget(Long userId, LocalDate day) {
+        entityManager.detach(entityManager.getReference(TaskDailyRollup.class, new TaskDailyRollup.Key(userId, day)));
+    }
+}
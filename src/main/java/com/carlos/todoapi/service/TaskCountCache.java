@@ -0,0 +1,60 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.entity.TaskStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-user task totals by status, so listings can report a total without a
+ * {@code COUNT(*)} per request. Loaded from the user's {@code task_counters}
+ * row (see {@link TaskCounters}) on first use; every write in
+ * {@link TaskService} drops the user's entry after its commit, so the next
+ * read loads the committed row.
+ */
+@Component
+public class TaskCountCache {
+
+    private final TaskCounters taskCounters;
+    private final Cache<Long, Map<TaskStatus, Long>> cache;
+
+    public TaskCountCache(TaskCounters taskCounters,
+                          @Value("${tasks.count-cache.max-size:10000}") long maxSize,
+                          @Value("${tasks.count-cache.ttl-seconds:600}") long ttlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.taskCounters = taskCounters;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.counts");
+    }
+
+    // status null = total de todas as tarefas do usuário
+    public long count(Long userId, TaskStatus status) {
+        Map<TaskStatus, Long> counts = cache.get(userId, taskCounters::statusCounts);
+
+        if (status == null) {
+            return counts.values().stream().mapToLong(Long::longValue).sum();
+        }
+        return counts.getOrDefault(status, 0L);
+    }
+
+    // Só depois do commit: antes dele uma carga concorrente ainda leria a linha antiga (e um rollback não muda nada).
+    // Uma carga em andamento termina antes do invalidate do Caffeine, então não sobra valor velho
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> cache.invalidate(userId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,300 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.response.TaskGroupCount;
+import com.carlos.todoapi.dto.response.TaskStatsResponse;
+import com.carlos.todoapi.dto.response.TaskStatusCount;
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.TaskCounter;
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.repository.TaskCounterRepository;
+import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user task totals kept in {@code task_counters}, so statistics cost one
+ * primary-key lookup. {@link TaskService} applies a delta in the same
+ * transaction as every task write; a scheduled job recounts users in batches
+ * and fixes any drift (e.g. writes from instances without this code).
+ * <p>
+ * Deliberate exception: the overdue total depends on the date, not only on
+ * writes, so the first stats read of each day recounts it over the user's
+ * tasks (an index range on {@code (user_id, due_date)}) with the counter row
+ * locked. Every other read of that day is the primary-key lookup.
+ */
+@Component
+public class TaskCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCounters.class);
+
+    // posições do vetor de contagens: status, depois prioridade (sem prioridade primeiro)
+    private static final int SLOT_PENDING = 0, SLOT_IN_PROGRESS = 1, SLOT_COMPLETED = 2;
+    private static final int SLOT_NO_PRIORITY = 3, SLOT_LOW = 4, SLOT_MEDIUM = 5, SLOT_HIGH = 6;
+    private static final int SLOTS = 7;
+
+    private final TaskCounterRepository counterRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ClusterJobLock jobLock;
+    private final int repairBatchSize;
+
+    public TaskCounters(TaskCounterRepository counterRepository,
+                        TaskRepository taskRepository,
+                        UserRepository userRepository,
+                        PlatformTransactionManager transactionManager,
+                        EntityManager entityManager,
+                        ClusterJobLock jobLock,
+                        @Value("${tasks.counters.repair-batch-size:500}") int repairBatchSize) {
+        this.counterRepository = counterRepository;
+        this.entityManager = entityManager;
+        this.jobLock = jobLock;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repairBatchSize = repairBatchSize;
+    }
+
+    /** The fields of a task that the counters depend on, captured before a write. */
+    public record TaskState(TaskStatus status, TaskPriority priority, LocalDate dueDate) {
+
+        public static TaskState of(Task task) {
+            return new TaskState(task.getStatus(), task.getPriority(), task.getDueDate());
+        }
+    }
+
+    // Usuário sem linha ainda não tem o que travar: o rebuild a cria com ON CONFLICT
+    public void lock(Long userId) {
+        counterRepository.lockAll(List.of(userId));
+    }
+
+    public void taskCreated(Long userId, Task task) {
+        apply(userId, null, TaskState.of(task));
+    }
+
+    public void taskChanged(Long userId, TaskState before, Task after) {
+        apply(userId, before, TaskState.of(after));
+    }
+
+    public void taskDeleted(Long userId, TaskState before) {
+        apply(userId, before, null);
+    }
+
+    @Transactional
+    public TaskStatsResponse getStats(Long userId) {
+        TaskCounter counter = counterRepository.findById(userId).orElseGet(() -> rebuild(userId));
+        LocalDate today = LocalDate.now();
+
+        // a primeira leitura do dia reconta as vencidas (a data muda sem nenhuma escrita); depois as escritas mantêm.
+        // Trava a linha antes de contar: uma escrita no meio pularia o delta (overdueAsOf ainda não é hoje) e
+        // depois seria apagada pelo reset; com a trava ela espera e aplica o delta sobre a contagem nova
+        long overdue = counter.getOverdue();
+        if (!today.equals(counter.getOverdueAsOf())) {
+            counterRepository.lockAll(List.of(userId));
+            overdue = taskRepository.countOverdue(userId, today, TaskStatus.COMPLETED);
+            counterRepository.resetOverdue(userId, overdue, today);
+            forget(userId);
+        }
+
+        Map<TaskStatus, Long> byStatus = statusCounts(counter);
+
+        Map<TaskPriority, Long> byPriority = new EnumMap<>(TaskPriority.class);
+        byPriority.put(TaskPriority.LOW, counter.getLowPriority());
+        byPriority.put(TaskPriority.MEDIUM, counter.getMediumPriority());
+        byPriority.put(TaskPriority.HIGH, counter.getHighPriority());
+
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+
+        return new TaskStatsResponse(total, byStatus, byPriority, counter.getNoPriority(), overdue);
+    }
+
+    // Fonte do TaskCountCache: a linha de contadores, ou GROUP BY se o usuário ainda não tem linha
+    public Map<TaskStatus, Long> statusCounts(Long userId) {
+        return counterRepository.findById(userId)
+                .map(TaskCounters::statusCounts)
+                .orElseGet(() -> {
+                    Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+                    for (TaskStatusCount row : taskRepository.countByStatus(userId)) {
+                        counts.put(row.status(), row.count());
+                    }
+                    return counts;
+                });
+    }
+
+    // uma instância por vez: as outras pulam esta execução
+    @Scheduled(cron = "${tasks.counters.repair-cron:0 30 3 * * *}")
+    public void repairAll() {
+        jobLock.runExclusively("task-counters-repair", this::repairAllUsers);
+    }
+
+    private void repairAllUsers() {
+        long after = 0;
+        int fixed = 0;
+
+        // um lote por transação: trava só as linhas de contador daquele lote, e por pouco tempo
+        List<Long> userIds;
+        while (!(userIds = userRepository.findIdsAfter(after, Limit.of(repairBatchSize))).isEmpty()) {
+            List<Long> batch = userIds;
+            fixed += transactionTemplate.execute(status -> repair(batch));
+            after = batch.getLast();
+        }
+
+        if (fixed > 0) {
+            log.warn("Task counters repaired for {} users", fixed);
+        } else {
+            log.info("Task counters checked, no drift found");
+        }
+    }
+
+    private void apply(Long userId, TaskState before, TaskState after) {
+        long[] delta = new long[SLOTS];
+        add(delta, before, -1);
+        add(delta, after, 1);
+
+        boolean changed = false;
+        for (long value : delta) {
+            changed |= value != 0;
+        }
+
+        if (changed) {
+            int updated = counterRepository.applyDelta(userId, delta[SLOT_PENDING], delta[SLOT_IN_PROGRESS], delta[SLOT_COMPLETED],
+                    delta[SLOT_NO_PRIORITY], delta[SLOT_LOW], delta[SLOT_MEDIUM], delta[SLOT_HIGH]);
+            forget(userId);
+
+            // usuário sem linha (novo, ou criado antes dos contadores): conta tudo de uma vez, já incluindo esta escrita
+            if (updated == 0) {
+                rebuild(userId);
+                return;
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        long overdueDelta = overdue(after, today) - overdue(before, today);
+        if (overdueDelta != 0) {
+            counterRepository.applyOverdueDelta(userId, overdueDelta, today);
+            forget(userId);
+        }
+    }
+
+    // Os UPDATEs em massa não passam pela entidade: uma cópia já carregada no contexto ficaria com os valores antigos.
+    // getReference não consulta o banco
+    private void forget(Long userId) {
+        entityManager.detach(entityManager.getReference(TaskCounter.class, userId));
+    }
+
+    private TaskCounter rebuild(Long userId) {
+        repair(List.of(userId));
+        return counterRepository.findById(userId).orElseThrow();
+    }
+
+    // Trava as linhas antes de contar: uma escrita concorrente espera o commit e soma sobre o valor corrigido
+    private int repair(List<Long> userIds) {
+        Map<Long, TaskCounter> counters = new HashMap<>();
+        for (TaskCounter counter : counterRepository.lockAll(userIds)) {
+            counters.put(counter.getUserId(), counter);
+        }
+
+        // usuários sem linha (ninguém cria no cadastro): insere zerada e trava também
+        List<Long> missing = userIds.stream().filter(userId -> !counters.containsKey(userId)).toList();
+        if (!missing.isEmpty()) {
+            missing.forEach(counterRepository::insertIfAbsent);
+            for (TaskCounter counter : counterRepository.lockAll(missing)) {
+                counters.put(counter.getUserId(), counter);
+            }
+        }
+
+        Map<Long, long[]> expected = new HashMap<>();
+        for (TaskGroupCount group : taskRepository.countGroupsByUserIds(userIds)) {
+            long[] counts = expected.computeIfAbsent(group.userId(), id -> new long[SLOTS]);
+            counts[statusSlot(group.status())] += group.count();
+            counts[prioritySlot(group.priority())] += group.count();
+        }
+
+        int fixed = 0;
+        for (TaskCounter counter : counters.values()) {
+            long[] counts = expected.getOrDefault(counter.getUserId(), new long[SLOTS]);
+
+            if (!Arrays.equals(counts(counter), counts)) {
+                setCounts(counter, counts);
+                counter.setOverdueAsOf(null);
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private static void add(long[] counts, TaskState state, int sign) {
+        if (state != null) {
+            counts[statusSlot(state.status())] += sign;
+            counts[prioritySlot(state.priority())] += sign;
+        }
+    }
+
+    private static long overdue(TaskState state, LocalDate today) {
+        boolean overdue = state != null && state.dueDate() != null && state.dueDate().isBefore(today)
+                && state.status() != TaskStatus.COMPLETED;
+        return overdue ? 1 : 0;
+    }
+
+    private static int statusSlot(TaskStatus status) {
+        return switch (status) {
+            case PENDING -> SLOT_PENDING;
+            case IN_PROGRESS -> SLOT_IN_PROGRESS;
+            case COMPLETED -> SLOT_COMPLETED;
+        };
+    }
+
+    private static int prioritySlot(TaskPriority priority) {
+        if (priority == null) {
+            return SLOT_NO_PRIORITY;
+        }
+        return switch (priority) {
+            case LOW -> SLOT_LOW;
+            case MEDIUM -> SLOT_MEDIUM;
+            case HIGH -> SLOT_HIGH;
+        };
+    }
+
+    private static Map<TaskStatus, Long> statusCounts(TaskCounter counter) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        counts.put(TaskStatus.PENDING, counter.getPending());
+        counts.put(TaskStatus.IN_PROGRESS, counter.getInProgress());
+        counts.put(TaskStatus.COMPLETED, counter.getCompleted());
+        return counts;
+    }
+
+    private static long[] counts(TaskCounter counter) {
+        return new long[]{
+                counter.getPending(), counter.getInProgress(), counter.getCompleted(),
+                counter.getNoPriority(), counter.getLowPriority(), counter.getMediumPriority(), counter.getHighPriority()
+        };
+    }
+
+    private static void setCounts(TaskCounter counter, long[] counts) {
+        counter.setPending(counts[SLOT_PENDING]);
+        counter.setInProgress(counts[SLOT_IN_PROGRESS]);
+        counter.setCompleted(counts[SLOT_COMPLETED]);
+        counter.setNoPriority(counts[SLOT_NO_PRIORITY]);
+        counter.setLowPriority(counts[SLOT_LOW]);
+        counter.setMediumPriority(counts[SLOT_MEDIUM]);
+        counter.setHighPriority(counts[SLOT_HIGH]);
+    }
+}
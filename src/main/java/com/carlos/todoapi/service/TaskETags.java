@@ -0,0 +1,60 @@
+package com.carlos.todoapi.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Strong ETags for tasks (id + updatedAt) and task lists (per-user list
+ * version from {@link TaskListCache}).
+ */
+public final class TaskETags {
+
+    // Versões de lista recomeçam a cada start e são por nó: o epoch evita 304 com ETag de outra instância
+    private static final String LIST_EPOCH = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private TaskETags() {
+    }
+
+    // updatedAt em micros: é a precisão que o banco guarda (a entidade em memória pode ter nanos)
+    public static String forTask(Long id, LocalDateTime updatedAt) {
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1_000;
+        return "\"" + id + "-" + Long.toString(micros, 36) + "\"";
+    }
+
+    // asOf != null: a lista depende do dia (filtro overdue), então o ETag muda à meia-noite mesmo sem escrita
+    public static String forList(long version, LocalDate asOf) {
+        String day = asOf == null ? "" : "-" + Long.toString(asOf.toEpochDay(), 36);
+        return "\"l-" + LIST_EPOCH + "-" + Long.toString(version, 36) + day + "\"";
+    }
+
+    /**
+     * Checks an If-None-Match / If-Match header value against an ETag.
+     * Weak comparison ignores the {@code W/} prefix (If-None-Match); strong
+     * comparison never matches weak tags (If-Match).
+     */
+    public static boolean matches(String header, String etag, boolean weakComparison) {
+        if (header == null || etag == null) {
+            return false;
+        }
+
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weakComparison) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
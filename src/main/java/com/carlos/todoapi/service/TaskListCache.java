@@ -0,0 +1,98 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.request.TaskFilter;
+import com.carlos.todoapi.dto.request.TaskView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered task list pages. Every key carries the user's current
+ * list version; a write just moves the user to a new version, so old pages
+ * become unreachable without scanning and are evicted by size/TTL.
+ */
+@Component
+public class TaskListCache {
+
+    // Versões vêm de um contador global: uma versão nova nunca coincide com uma já usada
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private final boolean enabled;
+    private final Cache<Long, Long> versions;
+    private final Cache<PageKey, Slice<?>> pages;
+
+    public TaskListCache(@Value("${tasks.list-cache.enabled:true}") boolean enabled,
+                         @Value("${tasks.list-cache.max-size:10000}") long maxSize,
+                         @Value("${tasks.list-cache.ttl-seconds:300}") long ttlSeconds,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "tasks.list-pages");
+    }
+
+    // version = currentVersion(userId) lido antes (o mesmo usado no ETag da resposta);
+    // asOf = dia usado pelo filtro overdue (null quando o filtro não depende da data)
+    public Slice<?> get(Long userId, long version, TaskFilter filter, LocalDate asOf, TaskView view, boolean withTotal, Pageable pageable,
+                        Supplier<Slice<?>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        PageKey key = new PageKey(userId, version, filter, asOf, view, withTotal,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+
+        return pages.get(key, k -> loader.get());
+    }
+
+    public long currentVersion(Long userId) {
+        return versions.get(userId, id -> versionSequence.incrementAndGet());
+    }
+
+    // Dentro de transação troca a versão de novo ao terminar: uma leitura concorrente pode ter
+    // guardado dados de antes do commit na versão intermediária
+    public void invalidate(Long userId) {
+        bump(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(userId);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        versions.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    private void bump(Long userId) {
+        versions.put(userId, versionSequence.incrementAndGet());
+    }
+
+    private record PageKey(Long userId, long version, TaskFilter filter, LocalDate asOf, TaskView view, boolean withTotal,
+                           int page, int size, String sort) {
+    }
+}
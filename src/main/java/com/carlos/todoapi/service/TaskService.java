@@ -1,68 +1,129 @@
 package com.carlos.todoapi.service;
 
 import com.carlos.todoapi.dto.request.CreateTaskRequest;
+import com.carlos.todoapi.dto.request.SearchCursor;
+import com.carlos.todoapi.dto.request.TaskFilter;
+import com.carlos.todoapi.dto.request.TaskCursor;
 import com.carlos.todoapi.dto.request.UpdateTaskRequest;
+import com.carlos.todoapi.dto.response.CursorPageResponse;
+import com.carlos.todoapi.dto.response.TaskCompletionHistoryResponse;
 import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskSearchResult;
+import com.carlos.todoapi.dto.response.TaskStatsResponse;
+import com.carlos.todoapi.dto.response.TaskSuggestion;
+import com.carlos.todoapi.dto.response.TaskSummaryResponse;
 import com.carlos.todoapi.entity.Task;
 import com.carlos.todoapi.entity.TaskStatus;
 import com.carlos.todoapi.entity.User;
+import com.carlos.todoapi.exception.PreconditionFailedException;
 import com.carlos.todoapi.exception.TaskNotFoundException;
-import com.carlos.todoapi.exception.UnauthorizedAccessException;
-import com.carlos.todoapi.exception.UserNotFoundException;
 import com.carlos.todoapi.mapper.TaskMapper;
+import com.carlos.todoapi.repository.TaskJsonRepository;
 import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.repository.TaskSearchRepository;
+import com.carlos.todoapi.repository.TaskSpecifications;
 import com.carlos.todoapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final TaskMapper taskMapper;
+    private final TaskCountCache taskCountCache;
+    private final TaskJsonRepository taskJsonRepository;
+    private final TaskListCache taskListCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final TaskSearchRepository taskSearchRepository;
+    private final TaskSuggestIndex taskSuggestIndex;
+    private final TaskCounters taskCounters;
+    private final TaskCompletionRollup taskCompletionRollup;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper) {
+    public TaskService(TaskRepository taskRepository, UserRepository userRepository, TaskMapper taskMapper, TaskCountCache taskCountCache,
+                       TaskJsonRepository taskJsonRepository, TaskListCache taskListCache, CacheInvalidationBus invalidationBus,
+                       TaskSearchRepository taskSearchRepository, TaskSuggestIndex taskSuggestIndex, TaskCounters taskCounters,
+                       TaskCompletionRollup taskCompletionRollup) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.taskMapper = taskMapper;
+        this.taskCountCache = taskCountCache;
+        this.taskJsonRepository = taskJsonRepository;
+        this.taskListCache = taskListCache;
+        this.invalidationBus = invalidationBus;
+        this.taskSearchRepository = taskSearchRepository;
+        this.taskSuggestIndex = taskSuggestIndex;
+        this.taskCounters = taskCounters;
+        this.taskCompletionRollup = taskCompletionRollup;
     }
 
-    public TaskResponse createTask(CreateTaskRequest request, String username) {
-        User user = getCurrentUser(username);
+    // Escritas são transacionais: a tarefa, a linha de contadores (task_counters) e o rollup diário mudam juntos
+    @Transactional
+    public TaskResponse createTask(CreateTaskRequest request, Long userId) {
+        User user = getUserReference(userId);
 
         Task task = taskMapper.toEntity(request, user);
 
         Task taskSaved = taskRepository.save(task);
+        taskCounters.taskCreated(userId, taskSaved);
+        taskCompletionRollup.taskCreated(userId, taskSaved);
+        taskCountCache.invalidate(userId);
+        taskListCache.invalidate(userId);
+        taskSuggestIndex.taskSaved(userId, taskSaved.getId(), taskSaved.getTitle());
+        invalidationBus.taskChanged(userId, taskSaved.getId());
+
+        // criada já concluída: grava o completedAt agora, não depois de montar a resposta
+        taskRepository.flush();
 
         return taskMapper.toResponse(taskSaved);
     }
 
-    public Page<TaskResponse> getTasksByUser(String username, Pageable pageable) {
-        User user = getCurrentUser(username);
-        Page<Task> tasks = taskRepository.findByUserId(user.getId(), pageable);
+    public Page<TaskResponse> getTasksByUser(Long userId, Pageable pageable) {
+        Page<Task> tasks = taskRepository.findByUserId(userId, pageable);
 
         return tasks.map(taskMapper::toResponse);
 
     }
 
-    public TaskResponse getTaskById(Long id, String username) {
-        Task taskById = getTaskAndVerifyOwnership(id, username);
+    public TaskResponse getTaskById(Long id, Long userId) {
+        return taskRepository.findResponseByIdAndUserId(id, userId)
+                .orElseThrow(() -> new TaskNotFoundException("Task by ID not found"));
 
-        return taskMapper.toResponse(taskById);
+    }
 
+    // ETag atual da tarefa (null se não existe ou é de outro usuário)
+    public String getTaskETag(Long id, Long userId) {
+        return taskRepository.findUpdatedAtByIdAndUserId(id, userId)
+                .map(updatedAt -> TaskETags.forTask(id, updatedAt))
+                .orElse(null);
     }
 
-    public TaskResponse updateTask(Long id, UpdateTaskRequest request, String username) {
-        Task task = getTaskAndVerifyOwnership(id, username);
+    // ifMatch = valor do header If-Match (null quando o cliente não mandou)
+    @Transactional
+    public TaskResponse updateTask(Long id, UpdateTaskRequest request, Long userId, String ifMatch) {
+        Task task = getTaskForWrite(id, userId);
+        verifyPrecondition(task, ifMatch);
+        TaskStatus previousStatus = task.getStatus();
+        TaskCounters.TaskState before = TaskCounters.TaskState.of(task);
 
         if (request.title() != null) {
             task.setTitle(request.title());
@@ -85,62 +146,193 @@ public class TaskService {
         }
 
         Task taskSaved = taskRepository.save(task);
+        taskCounters.taskChanged(userId, before, taskSaved);
+        taskCompletionRollup.statusChanged(userId, taskSaved, previousStatus);
+        taskCountCache.invalidate(userId);
+        taskListCache.invalidate(userId);
+        taskSuggestIndex.taskSaved(userId, id, taskSaved.getTitle());
+        invalidationBus.taskChanged(userId, id);
+
+        // dentro da transação o save não grava: o flush gera o updatedAt que vai na resposta (e no ETag)
+        taskRepository.flush();
 
         return taskMapper.toResponse(taskSaved);
 
     }
 
-    public TaskResponse updateTaskStatus(Long id, TaskStatus status, String username) {
-        Task task = getTaskAndVerifyOwnership(id, username);
+    @Transactional
+    public TaskResponse updateTaskStatus(Long id, TaskStatus status, Long userId, String ifMatch) {
+        Task task = getTaskForWrite(id, userId);
+        verifyPrecondition(task, ifMatch);
+
+        TaskStatus previousStatus = task.getStatus();
+        TaskCounters.TaskState before = TaskCounters.TaskState.of(task);
 
         task.setStatus(status);
         Task taskSaved = taskRepository.save(task);
+        taskCounters.taskChanged(userId, before, taskSaved);
+        taskCompletionRollup.statusChanged(userId, taskSaved, previousStatus);
+        taskCountCache.invalidate(userId);
+        taskListCache.invalidate(userId);
+        invalidationBus.taskChanged(userId, id);
+
+        taskRepository.flush();
 
         return taskMapper.toResponse(taskSaved);
 
     }
 
-    public void deleteTask(Long id, String username) {
+    @Transactional
+    public void deleteTask(Long id, Long userId) {
 
-        Task task = getTaskAndVerifyOwnership(id, username);
+        Task task = getTaskForWrite(id, userId);
         taskRepository.delete(task);
+        taskCounters.taskDeleted(userId, TaskCounters.TaskState.of(task));
+        taskCountCache.invalidate(userId);
+        taskListCache.invalidate(userId);
+        taskSuggestIndex.taskDeleted(userId, id);
+        invalidationBus.taskChanged(userId, id);
 
     }
 
-    public Page<TaskResponse> getTasksByUserAndStatus(String username, TaskStatus status, Pageable pageable) {
-        User user = getCurrentUser(username);
+    // Totais por status, prioridade e vencidas: uma leitura por PK em task_counters (as vencidas são recontadas
+    // na primeira leitura de cada dia, ver TaskCounters)
+    public TaskStatsResponse getTaskStats(Long userId) {
+        return taskCounters.getStats(userId);
+    }
+
+    // Concluídas por dia na faixa [from, to]: só linhas de task_daily_rollup
+    public TaskCompletionHistoryResponse getCompletionHistory(Long userId, LocalDate from, LocalDate to) {
+        return taskCompletionRollup.getHistory(userId, from, to);
+    }
 
-        Page<Task> tasks;
+    public CursorPageResponse<TaskResponse> getTasksByCursor(Long userId, TaskStatus status, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+        TaskCursor after = (cursor == null || cursor.isBlank()) ? null : TaskCursor.decode(cursor);
+
+        // busca um a mais só para saber se existe próxima página
+        Limit limit = Limit.of(pageSize + 1);
+        List<TaskResponse> tasks;
 
         if (status == null) {
-            tasks = taskRepository.findByUserId(user.getId(), pageable);
+            tasks = after == null
+                    ? taskRepository.findFirstKeysetPage(userId, limit)
+                    : taskRepository.findKeysetPageAfter(userId, after.createdAt(), after.id(), limit);
         } else {
-            tasks = taskRepository.findByUserIdAndStatus(user.getId(), status, pageable);
+            tasks = after == null
+                    ? taskRepository.findFirstKeysetPageByStatus(userId, status, limit)
+                    : taskRepository.findKeysetPageAfterByStatus(userId, status, after.createdAt(), after.id(), limit);
         }
 
-        return tasks.map(taskMapper::toResponse);
+        boolean hasNext = tasks.size() > pageSize;
+        List<TaskResponse> page = hasNext ? tasks.subList(0, pageSize) : tasks;
+        String nextCursor = hasNext ? TaskCursor.of(page.getLast()).encode() : null;
+
+        return new CursorPageResponse<>(page, nextCursor, pageSize);
     }
 
+    // Página com total: o conteúdo vem de um Slice e o total do cache de contagens (sem COUNT por request)
+    public Page<TaskResponse> getTasksByUserAndStatus(Long userId, TaskStatus status, Pageable pageable) {
+        Slice<TaskResponse> slice = getTaskSliceByUserAndStatus(userId, status, pageable);
+        long total = taskCountCache.count(userId, status);
 
-    //Utility methods
-    private User getCurrentUser(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        return new PageImpl<>(slice.getContent(), pageable, total);
     }
 
-    private Task getCurrentTask(Long id) {
-        return taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task by ID not found"));
+    // Para quem só rola a lista: sem total, apenas hasNext
+    public Slice<TaskResponse> getTaskSliceByUserAndStatus(Long userId, TaskStatus status, Pageable pageable) {
+        if (status == null) {
+            return taskRepository.findResponsesByUserId(userId, pageable);
+        }
+
+        return taskRepository.findResponsesByUserIdAndStatus(userId, status, pageable);
+    }
+
+
+    // Filtros combinados (prioridade, prazos, vencidas, datas): consulta montada por TaskSpecifications
+    public Slice<TaskResponse> getFilteredTasks(Long userId, TaskFilter filter, Pageable pageable, boolean withTotal) {
+        return taskRepository.findProjected(TaskSpecifications.forUser(userId, filter, LocalDate.now()), TaskResponse.class, pageable, withTotal);
+    }
+
+    public Slice<TaskSummaryResponse> getFilteredTaskSummaries(Long userId, TaskFilter filter, Pageable pageable, boolean withTotal) {
+        return taskRepository.findProjected(TaskSpecifications.forUser(userId, filter, LocalDate.now()), TaskSummaryResponse.class, pageable, withTotal);
     }
 
-    private Task getTaskAndVerifyOwnership(Long id, String username) {
-        Task task = getCurrentTask(id);
+    // Busca textual ordenada por relevância, paginada por cursor (rank, id)
+    public CursorPageResponse<TaskSearchResult> searchTasks(Long userId, String query, String cursor, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
 
-        if (!task.getUser().getUsername().equals(username)) {
-            throw new UnauthorizedAccessException("Acesso não autorizado");
+        if (query == null || query.isBlank()) {
+            return new CursorPageResponse<>(List.of(), null, pageSize);
         }
 
-        return task;
+        SearchCursor after = (cursor == null || cursor.isBlank()) ? null : SearchCursor.decode(cursor);
+        List<TaskSearchResult> results = taskSearchRepository.search(userId, query.strip(), after, pageSize + 1);
+
+        boolean hasNext = results.size() > pageSize;
+        List<TaskSearchResult> page = hasNext ? results.subList(0, pageSize) : results;
+        String nextCursor = hasNext ? new SearchCursor(page.getLast().rank(), page.getLast().id()).encode() : null;
+
+        return new CursorPageResponse<>(page, nextCursor, pageSize);
+    }
+
+    // Typeahead de títulos: responde da memória, sem consulta por tecla
+    public List<TaskSuggestion> suggestTasks(Long userId, String prefix, int limit) {
+        return taskSuggestIndex.suggest(userId, prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+
+    // Listagem sem description: o TEXT nem sai do banco
+    public Slice<TaskSummaryResponse> getTaskSummaries(Long userId, TaskStatus status, Pageable pageable, boolean withTotal) {
+        Slice<TaskSummaryResponse> summaries = status == null
+                ? taskRepository.findSummariesByUserId(userId, pageable)
+                : taskRepository.findSummariesByUserIdAndStatus(userId, status, pageable);
+
+        if (!withTotal) {
+            return summaries;
+        }
+
+        return new PageImpl<>(summaries.getContent(), pageable, taskCountCache.count(userId, status));
+    }
+
+    // Mesma página, mas cada tarefa já vem renderizada em JSON pelo PostgreSQL (sem entidade, mapper ou Jackson por item)
+    public Slice<RawValue> getTaskJsonPage(Long userId, TaskStatus status, Pageable pageable, boolean withTotal) {
+        List<String> rows = taskJsonRepository.findJsonByUserIdAndStatus(userId, status, pageable, pageable.getPageSize() + 1);
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<RawValue> content = (hasNext ? rows.subList(0, pageable.getPageSize()) : rows).stream()
+                .map(RawValue::new)
+                .toList();
+
+        if (!withTotal) {
+            return new SliceImpl<>(content, pageable, hasNext);
+        }
+
+        return new PageImpl<>(content, pageable, taskCountCache.count(userId, status));
+    }
+
+    //Utility methods
+
+    // O id vem do token: uma referência basta para a FK, sem SELECT no users
+    private User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
+    private void verifyPrecondition(Task task, String ifMatch) {
+        if (ifMatch != null && !TaskETags.matches(ifMatch, TaskETags.forTask(task.getId(), task.getUpdatedAt()), false)) {
+            throw new PreconditionFailedException("Task was modified since it was last read");
+        }
+    }
+
+    // Toda escrita lê a tarefa travada (SELECT ... FOR UPDATE, sem cache de segundo nível) até o commit: o estado
+    // "antes" dos contadores e do rollup e a comparação do If-Match usam a versão que de fato vai ser sobrescrita.
+    // A linha de contadores é travada antes, na mesma ordem do reparo e do backfill (sem deadlock entre eles).
+    // O dono é conferido pela FK sem inicializar o User; inexistente e de outro dono dão o mesmo 404
+    private Task getTaskForWrite(Long id, Long userId) {
+        taskCounters.lock(userId);
+
+        return taskRepository.findByIdForUpdate(id)
+                .filter(task -> task.getUser().getId().equals(userId))
+                .orElseThrow(() -> new TaskNotFoundException("Task by ID not found"));
     }
 
 }
@@ -0,0 +1,273 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.response.TaskSuggestion;
+import com.carlos.todoapi.repository.TaskRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory title typeahead. Each active user gets a sorted array of
+ * normalized title keys (the whole title plus every word start), so a
+ * suggestion is a binary search and a short scan. Built with one query on
+ * first use, then kept up to date by the writes in {@link TaskService}
+ * once they commit;
+ * idle users are evicted and the total size is bounded by an estimated
+ * memory weight.
+ */
+@Component
+public class TaskSuggestIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // limita as chaves de títulos muito longos (só as primeiras palavras entram)
+    private static final int MAX_KEYS_PER_TITLE = 8;
+
+    private final TaskRepository taskRepository;
+    private final Cache<Long, UserIndex> cache;
+
+    public TaskSuggestIndex(TaskRepository taskRepository,
+                            @Value("${tasks.suggest.max-weight-bytes:67108864}") long maxWeightBytes,
+                            @Value("${tasks.suggest.idle-minutes:30}") long idleMinutes,
+                            MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long userId, UserIndex index) -> index.weight())
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks.suggest");
+    }
+
+    public List<TaskSuggestion> suggest(Long userId, String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        return cache.get(userId, this::load).find(key, limit);
+    }
+
+    // Só depois do commit: antes dele uma carga concorrente leria o título antigo e a escrita já teria passado.
+    // with/without são idempotentes, então reaplicar sobre uma carga que já viu o commit não muda nada
+    public void taskSaved(Long userId, Long taskId, String title) {
+        AfterCommit.run(() -> cache.asMap().computeIfPresent(userId, (id, index) -> index.with(taskId, title)));
+    }
+
+    public void taskDeleted(Long userId, Long taskId) {
+        AfterCommit.run(() -> cache.asMap().computeIfPresent(userId, (id, index) -> index.without(taskId)));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private UserIndex load(Long userId) {
+        Map<Long, String> titles = new HashMap<>();
+        for (TaskSuggestion task : taskRepository.findSuggestionsByUserId(userId)) {
+            titles.put(task.id(), task.title());
+        }
+        return UserIndex.of(titles);
+    }
+
+    // minúsculas, sem acentos e com espaços colapsados: "Relatório  Mensal" -> "relatorio mensal"
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    /**
+     * Immutable per-user index: {@code keys} sorted, {@code ids[i]} is the task
+     * of {@code keys[i]}. Writes build a new copy (copy-on-write), so readers
+     * never lock.
+     */
+    private record UserIndex(String[] keys, long[] ids, Map<Long, String> titles, int weight) {
+
+        static UserIndex of(Map<Long, String> titles) {
+            List<Entry> entries = new ArrayList<>();
+            titles.forEach((id, title) -> addKeys(entries, id, title));
+            entries.sort(null);
+
+            String[] keys = new String[entries.size()];
+            long[] ids = new long[entries.size()];
+            long weight = 64;
+
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = entries.get(i).key();
+                ids[i] = entries.get(i).id();
+                weight += keyWeight(keys[i]);
+            }
+            for (String title : titles.values()) {
+                weight += titleWeight(title);
+            }
+
+            return new UserIndex(keys, ids, titles, (int) Math.min(Integer.MAX_VALUE, weight));
+        }
+
+        UserIndex with(Long taskId, String title) {
+            String previous = titles.get(taskId);
+            if (title.equals(previous)) {
+                return this;
+            }
+
+            Map<Long, String> updated = new HashMap<>(titles);
+            updated.put(taskId, title);
+            return replace(taskId, previous, title, updated);
+        }
+
+        UserIndex without(Long taskId) {
+            String previous = titles.get(taskId);
+            if (previous == null) {
+                return this;
+            }
+
+            Map<Long, String> updated = new HashMap<>(titles);
+            updated.remove(taskId);
+            return replace(taskId, previous, null, updated);
+        }
+
+        // Só as chaves desta tarefa: as antigas saem e as novas entram nas posições achadas por busca binária.
+        // Os outros títulos não são normalizados nem reordenados; as arrays são copiadas (copy-on-write)
+        private UserIndex replace(Long taskId, String previous, String title, Map<Long, String> updated) {
+            List<Entry> removed = entries(taskId, previous);
+            List<Entry> added = entries(taskId, title);
+            long weight = this.weight;
+
+            boolean[] skip = new boolean[keys.length];
+            int removedCount = 0;
+            for (Entry entry : removed) {
+                int at = position(entry);
+                if (at < keys.length && ids[at] == entry.id() && keys[at].equals(entry.key())) {
+                    skip[at] = true;
+                    removedCount++;
+                    weight -= keyWeight(entry.key());
+                }
+            }
+
+            int[] insertAt = new int[added.size()];
+            for (int i = 0; i < insertAt.length; i++) {
+                insertAt[i] = position(added.get(i));
+                weight += keyWeight(added.get(i).key());
+            }
+
+            String[] newKeys = new String[keys.length - removedCount + added.size()];
+            long[] newIds = new long[newKeys.length];
+            int out = 0;
+            int next = 0;
+            for (int i = 0; i <= keys.length; i++) {
+                for (; next < insertAt.length && insertAt[next] == i; next++) {
+                    newKeys[out] = added.get(next).key();
+                    newIds[out++] = added.get(next).id();
+                }
+                if (i < keys.length && !skip[i]) {
+                    newKeys[out] = keys[i];
+                    newIds[out++] = ids[i];
+                }
+            }
+
+            weight += (title != null ? titleWeight(title) : 0) - (previous != null ? titleWeight(previous) : 0);
+            return new UserIndex(newKeys, newIds, updated, (int) Math.max(0, Math.min(Integer.MAX_VALUE, weight)));
+        }
+
+        // primeira posição com (key, id) >= entry, na mesma ordem de Entry.compareTo
+        private int position(Entry entry) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int byKey = keys[mid].compareTo(entry.key());
+                if (byKey < 0 || (byKey == 0 && ids[mid] < entry.id())) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        List<TaskSuggestion> find(String prefix, int limit) {
+            int from = Arrays.binarySearch(keys, prefix);
+            if (from < 0) {
+                from = -from - 1;
+            }
+
+            // a mesma tarefa pode casar pelo título e por uma palavra do meio: mantém só a primeira
+            Set<Long> matched = new LinkedHashSet<>();
+            for (int i = from; i < keys.length && matched.size() < limit && keys[i].startsWith(prefix); i++) {
+                matched.add(ids[i]);
+            }
+
+            return matched.stream()
+                    .map(id -> new TaskSuggestion(id, titles.get(id)))
+                    .toList();
+        }
+
+        private static List<Entry> entries(Long id, String title) {
+            List<Entry> entries = new ArrayList<>();
+            if (title != null) {
+                addKeys(entries, id, title);
+            }
+            entries.sort(null);
+            return entries;
+        }
+
+        // estimativas de memória usadas no weigher do cache
+        private static long keyWeight(String key) {
+            return 48 + 2L * key.length();
+        }
+
+        private static long titleWeight(String title) {
+            return 80 + 2L * title.length();
+        }
+
+        private static void addKeys(List<Entry> entries, Long id, String title) {
+            String normalized = normalize(title);
+            if (normalized.isEmpty()) {
+                return;
+            }
+
+            entries.add(new Entry(normalized, id));
+
+            int keys = 1;
+            for (int i = normalized.indexOf(' '); i >= 0 && keys < MAX_KEYS_PER_TITLE; i = normalized.indexOf(' ', i + 1)) {
+                entries.add(new Entry(normalized.substring(i + 1), id));
+                keys++;
+            }
+        }
+    }
+
+    private record Entry(String key, long id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = key.compareTo(other.key);
+            return byKey != 0 ? byKey : Long.compare(id, other.id);
+        }
+    }
+}
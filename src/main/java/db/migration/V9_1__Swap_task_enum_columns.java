@@ -0,0 +1,52 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Contract step of the enum conversion started in
+ * {@link V9__Convert_task_enums_to_smallint}: drops the VARCHAR
+ * {@code status}/{@code priority} columns and renames the smallint codes,
+ * constraints and indexes into their place, in one short transaction
+ * (metadata only).
+ *
+ * <p><b>Not safe for a rolling deploy.</b> Once this commits, an instance
+ * still running the previous release fails on every task read or write, so
+ * all of them must be stopped before it runs (recreate strategy). To keep
+ * that window short, V9 can be applied ahead of the release while the old
+ * instances serve traffic (Flyway {@code target=9}); the release then only
+ * runs this swap.
+ */
+public class V9_1__Swap_task_enum_columns extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            if (V9__Convert_task_enums_to_smallint.alreadyConverted(statement)) {
+                return;
+            }
+
+            // não fica na fila atrás de uma transação longa segurando todo mundo: falha e pode ser repetido
+            statement.execute("SET LOCAL lock_timeout = '5s'");
+            statement.execute("LOCK TABLE tasks IN ACCESS EXCLUSIVE MODE");
+
+            statement.execute("DROP TRIGGER tasks_sync_enum_codes ON tasks");
+            statement.execute("ALTER TABLE tasks ALTER COLUMN status_code SET NOT NULL");
+            statement.execute("ALTER TABLE tasks DROP COLUMN status, DROP COLUMN priority");
+
+            statement.execute("ALTER TABLE tasks RENAME COLUMN status_code TO status");
+            statement.execute("ALTER TABLE tasks RENAME COLUMN priority_code TO priority");
+            statement.execute("ALTER TABLE tasks ALTER COLUMN status SET DEFAULT 1");
+
+            statement.execute("ALTER TABLE tasks RENAME CONSTRAINT chk_status_code TO chk_status");
+            statement.execute("ALTER TABLE tasks RENAME CONSTRAINT chk_priority_code TO chk_priority");
+
+            statement.execute("ALTER INDEX idx_tasks_user_status_code_created_id RENAME TO idx_tasks_user_status_created_id");
+            statement.execute("ALTER INDEX idx_tasks_user_priority_code_id RENAME TO idx_tasks_user_priority_id");
+
+            statement.execute("DROP FUNCTION tasks_sync_enum_codes()");
+        }
+    }
+}
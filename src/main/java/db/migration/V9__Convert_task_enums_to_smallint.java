@@ -0,0 +1,166 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Expand step of the conversion of {@code tasks.status} and
+ * {@code tasks.priority} from VARCHAR to smallint codes, without holding a
+ * long lock on a large table:
+ *
+ * <ol>
+ *     <li>add nullable code columns and a trigger that fills them on every write;</li>
+ *     <li>backfill existing rows in id batches, one commit per batch;</li>
+ *     <li>add the CHECK constraints NOT VALID and validate them (no write lock);</li>
+ *     <li>build the new indexes CONCURRENTLY.</li>
+ * </ol>
+ *
+ * The VARCHAR columns stay and the trigger keeps the codes in sync, so
+ * instances still on the previous release keep reading and writing tasks
+ * while (and after) this runs. Dropping the VARCHAR columns is the separate
+ * contract step, {@link V9_1__Swap_task_enum_columns}.
+ *
+ * Runs outside a transaction (required by the per-batch commits and by
+ * CREATE INDEX CONCURRENTLY). Every step can be re-run: an INVALID index left
+ * by an interrupted CONCURRENTLY build is dropped and rebuilt, so a failed run
+ * can be repaired and retried. Needs
+ * {@code spring.flyway.postgresql.transactional-lock=false}: with Flyway's
+ * default transactional advisory lock, CREATE INDEX CONCURRENTLY waits for
+ * the lock-holding transaction forever.
+ */
+public class V9__Convert_task_enums_to_smallint extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V9__Convert_task_enums_to_smallint.class);
+
+    private static final int BATCH_SIZE = 10_000;
+
+    // Códigos fixos aqui (e não lidos dos enums): a migração não pode mudar se o enum mudar depois
+    private static final String STATUS_CODE = "CASE %s WHEN 'PENDING' THEN 1 WHEN 'IN_PROGRESS' THEN 2 WHEN 'COMPLETED' THEN 3 END";
+    private static final String PRIORITY_CODE = "CASE %s WHEN 'LOW' THEN 1 WHEN 'MEDIUM' THEN 2 WHEN 'HIGH' THEN 3 END";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            if (alreadyConverted(statement)) {
+                return;
+            }
+
+            expand(statement);
+            backfill(connection);
+            validate(statement);
+            createIndexes(connection, statement);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    static boolean alreadyConverted(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("""
+                SELECT data_type FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'tasks' AND column_name = 'status'""")) {
+            return rs.next() && rs.getString(1).equals("smallint");
+        }
+    }
+
+    // Colunas novas sem default: só metadados. A trigger mantém as linhas escritas durante o backfill em dia
+    private void expand(Statement statement) throws SQLException {
+        statement.execute("ALTER TABLE tasks ADD COLUMN IF NOT EXISTS status_code smallint, ADD COLUMN IF NOT EXISTS priority_code smallint");
+
+        statement.execute("""
+                CREATE OR REPLACE FUNCTION tasks_sync_enum_codes() RETURNS trigger AS $$
+                BEGIN
+                    NEW.status_code := %s;
+                    NEW.priority_code := %s;
+                    RETURN NEW;
+                END
+                $$ LANGUAGE plpgsql""".formatted(STATUS_CODE.formatted("NEW.status"), PRIORITY_CODE.formatted("NEW.priority")));
+
+        statement.execute("DROP TRIGGER IF EXISTS tasks_sync_enum_codes ON tasks");
+        statement.execute("""
+                CREATE TRIGGER tasks_sync_enum_codes
+                    BEFORE INSERT OR UPDATE OF status, priority ON tasks
+                    FOR EACH ROW EXECUTE FUNCTION tasks_sync_enum_codes()""");
+    }
+
+    // Lotes por faixa de id, cada um na sua transação (autocommit): locks curtos e WAL espalhado
+    private void backfill(Connection connection) throws SQLException {
+        long minId;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT coalesce(min(id), 0), coalesce(max(id), 0) FROM tasks")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+        }
+
+        String update = "UPDATE tasks SET status_code = %s, priority_code = %s WHERE id >= ? AND id < ? AND status_code IS NULL"
+                .formatted(STATUS_CODE.formatted("status"), PRIORITY_CODE.formatted("priority"));
+
+        long updated = 0;
+        try (PreparedStatement statement = connection.prepareStatement(update)) {
+            for (long from = minId; from <= maxId; from += BATCH_SIZE) {
+                statement.setLong(1, from);
+                statement.setLong(2, from + BATCH_SIZE);
+                updated += statement.executeUpdate();
+            }
+        }
+
+        log.info("Backfilled task status/priority codes for {} rows", updated);
+    }
+
+    // NOT VALID + VALIDATE: a validação lê a tabela sem bloquear escritas, e o SET NOT NULL depois não precisa varrer
+    private void validate(Statement statement) throws SQLException {
+        statement.execute("ALTER TABLE tasks DROP CONSTRAINT IF EXISTS chk_status_code");
+        statement.execute("ALTER TABLE tasks ADD CONSTRAINT chk_status_code CHECK (status_code IS NOT NULL AND status_code BETWEEN 1 AND 3) NOT VALID");
+        statement.execute("ALTER TABLE tasks VALIDATE CONSTRAINT chk_status_code");
+
+        statement.execute("ALTER TABLE tasks DROP CONSTRAINT IF EXISTS chk_priority_code");
+        statement.execute("ALTER TABLE tasks ADD CONSTRAINT chk_priority_code CHECK (priority_code BETWEEN 1 AND 3) NOT VALID");
+        statement.execute("ALTER TABLE tasks VALIDATE CONSTRAINT chk_priority_code");
+    }
+
+    // Mesmos índices das colunas antigas (V4/V6), já nas novas; os antigos somem junto com as colunas no V9_1
+    private void createIndexes(Connection connection, Statement statement) throws SQLException {
+        createIndex(connection, statement, "idx_tasks_user_status_code_created_id",
+                "ON tasks(user_id, status_code, created_at DESC, id DESC)");
+        createIndex(connection, statement, "idx_tasks_user_priority_code_id",
+                "ON tasks(user_id, priority_code, id)");
+    }
+
+    // Um CONCURRENTLY interrompido deixa o índice INVALID, e o IF NOT EXISTS o manteria (e o V9_1 o renomearia):
+    // descarta a sobra antes de criar de novo
+    private void createIndex(Connection connection, Statement statement, String name, String definition) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("""
+                SELECT NOT i.indisvalid
+                FROM pg_index i
+                JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE c.relname = ? AND c.relnamespace = current_schema()::regnamespace""")) {
+            query.setString(1, name);
+            try (ResultSet rs = query.executeQuery()) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    log.warn("Dropping invalid index {} left by a previous run", name);
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+                }
+            }
+        }
+
+        statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + definition);
+    }
+}
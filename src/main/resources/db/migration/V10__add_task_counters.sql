@@ -0,0 +1,33 @@
+-- per-user task totals maintained by TaskService in the same transaction as each task write
+-- fillfactor < 100 leaves room on the page so the frequent counter updates stay HOT (no index writes)
+CREATE TABLE IF NOT EXISTS task_counters (
+    user_id BIGINT PRIMARY KEY,
+    pending BIGINT NOT NULL DEFAULT 0,
+    in_progress BIGINT NOT NULL DEFAULT 0,
+    completed BIGINT NOT NULL DEFAULT 0,
+    no_priority BIGINT NOT NULL DEFAULT 0,
+    low_priority BIGINT NOT NULL DEFAULT 0,
+    medium_priority BIGINT NOT NULL DEFAULT 0,
+    high_priority BIGINT NOT NULL DEFAULT 0,
+    -- overdue depends on the date: valid only while overdue_as_of = today (NULL = recount on next read)
+    overdue BIGINT NOT NULL DEFAULT 0,
+    overdue_as_of DATE,
+
+    CONSTRAINT fk_task_counters_user FOREIGN KEY (user_id)
+        REFERENCES users(id) ON DELETE CASCADE
+) WITH (fillfactor = 70);
+
+-- initial load (status codes 1..3, priority codes 1..3 from V9); writes racing with the deploy are fixed by the repair job
+INSERT INTO task_counters (user_id, pending, in_progress, completed, no_priority, low_priority, medium_priority, high_priority)
+SELECT u.id,
+       count(t.id) FILTER (WHERE t.status = 1),
+       count(t.id) FILTER (WHERE t.status = 2),
+       count(t.id) FILTER (WHERE t.status = 3),
+       count(t.id) FILTER (WHERE t.id IS NOT NULL AND t.priority IS NULL),
+       count(t.id) FILTER (WHERE t.priority = 1),
+       count(t.id) FILTER (WHERE t.priority = 2),
+       count(t.id) FILTER (WHERE t.priority = 3)
+FROM users u
+LEFT JOIN tasks t ON t.user_id = u.id
+GROUP BY u.id
+ON CONFLICT (user_id) DO NOTHING;
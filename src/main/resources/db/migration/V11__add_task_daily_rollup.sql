@@ -0,0 +1,19 @@
+-- moment a task entered COMPLETED; NULL for tasks completed before this column (filled by the rollup backfill job)
+-- nullable without default: metadata-only change, no table rewrite
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP;
+
+-- completed tasks per user and day, maintained by TaskService in the same transaction as each status change;
+-- history queries are a range scan on the primary key
+CREATE TABLE IF NOT EXISTS task_daily_rollup (
+    user_id BIGINT NOT NULL,
+    completed_on DATE NOT NULL,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT pk_task_daily_rollup PRIMARY KEY (user_id, completed_on),
+    CONSTRAINT fk_task_daily_rollup_user FOREIGN KEY (user_id)
+        REFERENCES users(id) ON DELETE CASCADE
+) WITH (fillfactor = 70);
+
+-- completed tasks the backfill job has not counted yet (status 3 = COMPLETED): empty once the backfill has run,
+-- so the hourly job finds nothing to do without reading the completed tasks of every user
+CREATE INDEX IF NOT EXISTS idx_tasks_unrolled_completions ON tasks(user_id) WHERE status = 3 AND completed_at IS NULL;
@@ -0,0 +1,8 @@
+-- durable copy of the in-memory token denylist: reloaded on startup and after the invalidation listener reconnects
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- reload (expires_at > now) and hourly purge (expires_at <= now)
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
@@ -0,0 +1,5 @@
+-- keyset pagination: same column order as ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_tasks_user_created_id ON tasks(user_id, created_at DESC, id DESC);
+
+-- keyset pagination filtered by status
+CREATE INDEX idx_tasks_user_status_created_id ON tasks(user_id, status, created_at DESC, id DESC);
@@ -0,0 +1,11 @@
+-- full-text search over title (weight A) and description (weight B)
+-- 'simple' config: no stemming, works the same for any language users write in
+ALTER TABLE tasks
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+        ) STORED;
+
+-- index for search_vector @@ query (user_id is filtered on the matching rows)
+CREATE INDEX idx_tasks_search_vector ON tasks USING GIN (search_vector);
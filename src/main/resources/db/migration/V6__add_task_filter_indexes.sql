@@ -0,0 +1,15 @@
+-- indexes for the optional list filters (TaskSpecifications); each one also serves the sort by its key (TaskSorts):
+-- (user_id, key, id) answers "key = ?" / "key BETWEEN ? AND ?" and ORDER BY key, id in both directions
+-- not partial: the sort by the key must also return the rows where it is NULL
+-- created range uses idx_tasks_user_created_id (V4), status uses idx_tasks_user_status_created_id (V4)
+
+-- due-date range and overdue
+CREATE INDEX idx_tasks_user_due_date_id ON tasks(user_id, due_date, id);
+
+-- priority filter (a user's tasks of one priority are then sorted in created_at order)
+CREATE INDEX idx_tasks_user_priority_id ON tasks(user_id, priority, id);
+
+-- updated range. updated_at changes on every write, but every field the API can update is indexed already (title,
+-- status, priority, due_date; description feeds the GIN search_vector of V5), so task updates are never HOT anyway:
+-- the cost is one more index entry per update
+CREATE INDEX idx_tasks_user_updated_id ON tasks(user_id, updated_at DESC, id DESC);
@@ -0,0 +1,4 @@
+-- one index per allowed sort (TaskSorts): (user_id, key, id) serves ORDER BY key, id in both directions
+-- createdAt is covered by idx_tasks_user_created_id (V4); dueDate, priority and updatedAt by the filter indexes (V6)
+
+CREATE INDEX idx_tasks_user_title_id ON tasks(user_id, title, id);
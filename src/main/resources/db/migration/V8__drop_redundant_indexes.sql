@@ -0,0 +1,14 @@
+-- every index is maintained on each insert/update: drop the ones another index already covers
+
+-- duplicates of the UNIQUE constraint indexes on users (V1)
+DROP INDEX IF EXISTS idx_users_username;
+DROP INDEX IF EXISTS idx_users_email;
+
+-- prefixes of idx_tasks_user_created_id / idx_tasks_user_status_created_id (V4), which also serve
+-- the user_id lookups, the ON DELETE CASCADE from users and the count by status (index-only)
+DROP INDEX IF EXISTS idx_tasks_user_id;
+DROP INDEX IF EXISTS idx_tasks_user_status;
+
+-- no query filters or sorts tasks without user_id
+DROP INDEX IF EXISTS idx_tasks_status;
+DROP INDEX IF EXISTS idx_tasks_created_at;
@@ -3,6 +3,9 @@ package com.carlos.todoapi.integration;
 import com.carlos.todoapi.config.TestSecurityConfig;
 import com.carlos.todoapi.dto.request.LoginRequest;
 import com.carlos.todoapi.dto.request.RegisterRequest;
+import com.carlos.todoapi.dto.response.LoginResponse;
+import com.carlos.todoapi.entity.User;
+import com.carlos.todoapi.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,10 +14,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +38,9 @@ public class AuthIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Test
     @DisplayName("Should register user successfully via API")
     void testRegisterUser_Success() throws Exception {
@@ -74,7 +85,35 @@ public class AuthIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(duplicateRequest)))
                 .andExpect(status().isConflict())
-                .andExpect(jsonPath("$.status").value(409));
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("User already exist!"));
+    }
+
+    @Test
+    @DisplayName("Should return 409 when registering duplicate email")
+    void testRegisterUser_DuplicateEmail() throws Exception {
+        RegisterRequest request = new RegisterRequest(
+                "email_user1",
+                "same@test.com",
+                "password123"
+        );
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        RegisterRequest duplicateRequest = new RegisterRequest(
+                "email_user2",
+                "same@test.com",
+                "password456"
+        );
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(duplicateRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Email already exist!"));
     }
 
     @Test
@@ -149,4 +188,65 @@ public class AuthIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Invalid username or password"));
 
     }
+
+    @Test
+    @DisplayName("Should rehash stored password with calibrated cost on login")
+    void testLogin_RehashesPasswordWithDifferentCost() throws Exception {
+        //user saved with a cost the calibrated encoder never picks
+        User user = new User();
+        user.setUsername("legacy_user");
+        user.setEmail("legacy@test.com");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        userRepository.save(user);
+
+        LoginRequest loginRequest = new LoginRequest("legacy_user", "password123");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        String storedHash = userRepository.findByUsername("legacy_user").orElseThrow().getPassword();
+        assertFalse(storedHash.startsWith("$2a$04$"));
+        assertTrue(new BCryptPasswordEncoder().matches("password123", storedHash));
+    }
+
+    @Test
+    @DisplayName("Should reject token after logout")
+    void testLogout_RevokesToken() throws Exception {
+        RegisterRequest registerRequest = new RegisterRequest(
+                "logout_user",
+                "logout@test.com",
+                "password123"
+        );
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isCreated());
+
+        LoginRequest loginRequest = new LoginRequest("logout_user", "password123");
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String token = objectMapper.readValue(result.getResponse().getContentAsString(), LoginResponse.class).token();
+
+        //token works before logout
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        //same token is rejected even though it has not expired
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -0,0 +1,188 @@
+package com.carlos.todoapi.integration;
+
+import com.carlos.todoapi.dto.response.CursorPageResponse;
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskSearchResult;
+import com.carlos.todoapi.repository.TaskJsonRepository;
+import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PostgreSQL-only read paths (JSON rendered by the database, full-text
+ * search) checked for their output against a real PostgreSQL with the Flyway
+ * schema; H2 cannot run them.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PostgresReadPathTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("invalidation.bus.enabled", () -> "false");
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskJsonRepository taskJsonRepository;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+    private Long searcherId;
+
+    @BeforeAll
+    void seed() {
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password) VALUES ('reader', 'reader@test.com', 'x') RETURNING id", Long.class);
+
+        // controles, aspas, barra invertida, acentos e emoji; frações de segundo com e sem zeros à direita
+        jdbcTemplate.update("""
+                INSERT INTO tasks (title, description, status, priority, due_date, user_id, created_at, updated_at)
+                VALUES (?, ?, 1, 3, DATE '2026-01-15', ?, TIMESTAMP '2025-12-23 10:00:00.1234', TIMESTAMP '2025-12-23 10:00:00')""",
+                "Esc \u001b[0m \"quoted\" C:\\temp\ttab", "Relatório\nmensal 🚀\u0001", userId);
+        jdbcTemplate.update("""
+                INSERT INTO tasks (title, description, status, priority, due_date, user_id, created_at, updated_at)
+                VALUES ('Plain task', NULL, 3, NULL, NULL, ?, TIMESTAMP '2025-12-24 08:30:00.5', TIMESTAMP '2025-12-24 09:00:00.000001')""",
+                userId);
+
+        searcherId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, password) VALUES ('searcher', 'searcher@test.com', 'x') RETURNING id", Long.class);
+
+        // termo no título (peso A) em 3, só na descrição (peso B) em 10 com o mesmo texto: ranks empatados, desempate por id
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("INSERT INTO tasks (title, status, user_id) VALUES (?, 1, ?)", "Invoice " + i, searcherId);
+        }
+        for (int i = 1; i <= 10; i++) {
+            jdbcTemplate.update("INSERT INTO tasks (title, description, status, user_id) VALUES (?, 'send the invoice to the client', 1, ?)",
+                    "Task " + i, searcherId);
+        }
+        jdbcTemplate.update("INSERT INTO tasks (title, description, status, user_id) VALUES ('<b>Invoice</b> & co', 'monthly invoice for the client', 1, ?)",
+                searcherId);
+        jdbcTemplate.update("INSERT INTO tasks (title, status, user_id) VALUES ('Groceries', 1, ?)", searcherId);
+        jdbcTemplate.update("INSERT INTO tasks (title, status, user_id) VALUES ('Invoice of someone else', 1, ?)", userId);
+    }
+
+    @Test
+    @DisplayName("Database-rendered JSON should match Jackson byte for byte")
+    void testTaskJson_MatchesJackson() throws Exception {
+        //Act
+        List<String> rendered = taskJsonRepository.findJsonByUserIdAndStatus(
+                userId, null, PageRequest.of(0, 10, Sort.by("id")), 10);
+
+        //Assert
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ? ORDER BY id", Long.class, userId);
+        List<String> expected = new ArrayList<>();
+        for (Long id : ids) {
+            TaskResponse task = taskRepository.findResponseByIdAndUserId(id, userId).orElseThrow();
+            expected.add(objectMapper.writeValueAsString(task));
+        }
+
+        assertEquals(expected, rendered);
+    }
+
+    @Test
+    @DisplayName("Search should rank title matches first and only return the user's tasks")
+    void testSearch_Ranking() {
+        //Act
+        List<TaskSearchResult> results = taskService.searchTasks(searcherId, "invoice", null, 100).content();
+
+        //Assert
+        List<Long> ownIds = jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ?", Long.class, searcherId);
+        assertEquals(14, results.size());
+        assertTrue(ownIds.containsAll(results.stream().map(TaskSearchResult::id).toList()));
+
+        for (int i = 1; i < results.size(); i++) {
+            TaskSearchResult previous = results.get(i - 1);
+            TaskSearchResult current = results.get(i);
+            assertTrue(previous.rank() > current.rank() || (previous.rank() == current.rank() && previous.id() > current.id()),
+                    () -> "Out of order: " + previous + " before " + current);
+        }
+        assertTrue(results.getFirst().title().contains("Invoice"));
+        assertTrue(results.getLast().title().startsWith("Task "));
+    }
+
+    @Test
+    @DisplayName("Search cursor should walk every hit once, across tied ranks")
+    void testSearch_CursorPaging() {
+        //Arrange
+        List<Long> expected = taskService.searchTasks(searcherId, "invoice", null, 100).content().stream()
+                .map(TaskSearchResult::id)
+                .toList();
+
+        //Act
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<TaskSearchResult> page = taskService.searchTasks(searcherId, "invoice", cursor, 4);
+            page.content().forEach(result -> paged.add(result.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        //Assert
+        assertEquals(expected, paged);
+        assertEquals(paged.size(), new HashSet<>(paged).size());
+        assertEquals(4, pages);
+    }
+
+    @Test
+    @DisplayName("Search highlights should mark the terms and escape the stored text")
+    void testSearch_Highlighting() {
+        //Act
+        TaskSearchResult result = taskService.searchTasks(searcherId, "invoice", null, 100).content().stream()
+                .filter(hit -> hit.title().startsWith("<b>"))
+                .findFirst()
+                .orElseThrow();
+
+        //Assert
+        assertTrue(result.titleHighlight().contains("<mark>Invoice</mark>"), result.titleHighlight());
+        assertTrue(result.titleHighlight().contains("&lt;b&gt;"), result.titleHighlight());
+        assertTrue(result.titleHighlight().contains("&amp;"), result.titleHighlight());
+        assertFalse(result.titleHighlight().contains("<b>"), result.titleHighlight());
+        assertTrue(result.snippet().contains("<mark>invoice</mark>"), result.snippet());
+    }
+}
@@ -0,0 +1,391 @@
+package com.carlos.todoapi.integration;
+
+import com.carlos.todoapi.dto.request.SearchCursor;
+import com.carlos.todoapi.dto.request.TaskFilter;
+import com.carlos.todoapi.entity.TaskPriority;
+import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.repository.TaskCounterRepository;
+import com.carlos.todoapi.repository.TaskDailyRollupRepository;
+import com.carlos.todoapi.repository.TaskJsonRepository;
+import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.repository.TaskSearchRepository;
+import com.carlos.todoapi.repository.TaskSorts;
+import com.carlos.todoapi.repository.TaskSpecifications;
+import com.carlos.todoapi.repository.UserRepository;
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskSummaryResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plan regression suite: runs every repository query (JPA and the raw SQL of
+ * the JDBC repositories) against a seeded PostgreSQL (Flyway schema and
+ * indexes), captures every statement prepared on the DataSource and fails if
+ * its generic plan (the one a prepared statement ends up using) has a Seq
+ * Scan or a Sort. The few queries that cannot avoid a sort (a filter on one
+ * key ordered by another, relevance ranking, grouping a batch of users) say
+ * why at the call site.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+
+    // GENERIC_PLAN precisa do PostgreSQL 16+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final List<String> SORT_NODES = List.of("Sort", "Incremental Sort");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("invalidation.bus.enabled", () -> "false");
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskCounterRepository taskCounterRepository;
+
+    @Autowired
+    private TaskDailyRollupRepository taskDailyRollupRepository;
+
+    @Autowired
+    private TaskJsonRepository taskJsonRepository;
+
+    @Autowired
+    private TaskSearchRepository taskSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+    private Long taskId;
+
+    // Muitos usuários (users deixa de caber em uma página) e tarefas concentradas em parte deles, como em produção
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("""
+                INSERT INTO users (username, email, password)
+                SELECT 'user' || n, 'user' || n || '@test.com', 'x' FROM generate_series(1, 20000) n""");
+
+        jdbcTemplate.execute("""
+                INSERT INTO tasks (title, description, status, priority, due_date, user_id, created_at, updated_at)
+                SELECT 'Task ' || n, 'Description ' || n,
+                       1 + n % 3,
+                       CASE WHEN n % 4 = 3 THEN NULL ELSE 1 + n % 4 END,
+                       CASE WHEN n % 5 = 0 THEN NULL ELSE CURRENT_DATE + (n % 60 - 30) END,
+                       1 + n % 200,
+                       now() - (n || ' minutes')::interval,
+                       now() - ((n % 1000) || ' minutes')::interval
+                FROM generate_series(1, 200000) n""");
+
+        // um ano de rollup para cada usuário com tarefas
+        jdbcTemplate.execute("""
+                INSERT INTO task_daily_rollup (user_id, completed_on, completed_count)
+                SELECT u, CURRENT_DATE - d, 1 + d % 5 FROM generate_series(1, 200) u, generate_series(0, 364) d""");
+
+        jdbcTemplate.execute("INSERT INTO task_counters (user_id) SELECT id FROM users");
+
+        jdbcTemplate.execute("ANALYZE");
+
+        userId = jdbcTemplate.queryForObject("SELECT user_id FROM tasks GROUP BY user_id ORDER BY count(*) DESC LIMIT 1", Long.class);
+        taskId = jdbcTemplate.queryForObject("SELECT max(id) FROM tasks WHERE user_id = ?", Long.class, userId);
+    }
+
+    @Test
+    @DisplayName("Task lookups by id should use indexes")
+    void testTaskLookups() {
+        assertIndexedPlans(() -> taskRepository.findById(taskId));
+        assertIndexedPlans(() -> taskRepository.findByIdForUpdate(taskId));
+        assertIndexedPlans(() -> taskRepository.findResponseByIdAndUserId(taskId, userId));
+        assertIndexedPlans(() -> taskRepository.findUpdatedAtByIdAndUserId(taskId, userId));
+    }
+
+    @Test
+    @DisplayName("Every allowed list sort should be served by an index")
+    void testTaskListSorts() {
+        for (String property : TaskSorts.SORTABLE) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Pageable pageable = TaskSorts.indexed(PageRequest.of(2, 20, Sort.by(direction, property)));
+
+                assertIndexedPlans(() -> taskRepository.findByUserId(userId, pageable));
+                assertIndexedPlans(() -> taskRepository.findResponsesByUserId(userId, pageable));
+                assertIndexedPlans(() -> taskRepository.findSummariesByUserId(userId, pageable));
+                assertIndexedPlans(() -> taskJsonRepository.findJsonByUserIdAndStatus(userId, null, pageable, 21));
+                assertIndexedPlans(() -> taskJsonRepository.findJsonByUserIdAndStatus(userId, TaskStatus.PENDING, TaskSorts.indexed(PageRequest.of(0, 20)), 21));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Status-filtered listings and counts should use indexes")
+    void testTaskListByStatus() {
+        Pageable pageable = TaskSorts.indexed(PageRequest.of(0, 20));
+
+        assertIndexedPlans(() -> taskRepository.findByUserIdAndStatus(userId, TaskStatus.PENDING, pageable));
+        assertIndexedPlans(() -> taskRepository.findResponsesByUserIdAndStatus(userId, TaskStatus.PENDING, pageable));
+        assertIndexedPlans(() -> taskRepository.findSummariesByUserIdAndStatus(userId, TaskStatus.PENDING, pageable));
+        assertIndexedPlans(() -> taskRepository.countByStatus(userId));
+        assertIndexedPlans(() -> taskRepository.findSuggestionsByUserId(userId));
+    }
+
+    @Test
+    @DisplayName("Keyset pages should use indexes")
+    void testKeysetPages() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+
+        assertIndexedPlans(() -> taskRepository.findFirstKeysetPage(userId, Limit.of(21)));
+        assertIndexedPlans(() -> taskRepository.findKeysetPageAfter(userId, createdAt, taskId, Limit.of(21)));
+        assertIndexedPlans(() -> taskRepository.findFirstKeysetPageByStatus(userId, TaskStatus.PENDING, Limit.of(21)));
+        assertIndexedPlans(() -> taskRepository.findKeysetPageAfterByStatus(userId, TaskStatus.PENDING, createdAt, taskId, Limit.of(21)));
+    }
+
+    @Test
+    @DisplayName("Dynamic filters should use indexes")
+    void testFilteredListings() {
+        LocalDate today = LocalDate.now();
+        Pageable pageable = TaskSorts.indexed(PageRequest.of(0, 20));
+
+        // filtro por uma chave e ordem por outra (created_at): nenhum índice tem as duas, então o planner ordena
+        // as tarefas do usuário que passam no filtro (ou percorre a ordem e filtra); o status tem índice com created_at
+        String otherKeyThanOrder = "filter key differs from the created_at order";
+
+        List<TaskFilter> filters = List.of(
+                new TaskFilter(null, TaskPriority.HIGH, null, null, null, null, null, null, null),
+                new TaskFilter(null, null, today, today.plusDays(7), null, null, null, null, null),
+                new TaskFilter(null, TaskPriority.HIGH, null, null, true, null, null, null, null),
+                new TaskFilter(null, null, null, null, null, null, null, LocalDateTime.now().minusHours(1), null)
+        );
+
+        for (TaskFilter filter : filters) {
+            assertIndexedPlans(otherKeyThanOrder, () -> taskRepository.findProjected(TaskSpecifications.forUser(userId, filter, today), TaskResponse.class, pageable, true));
+            assertIndexedPlans(otherKeyThanOrder, () -> taskRepository.findProjected(TaskSpecifications.forUser(userId, filter, today), TaskSummaryResponse.class, pageable, false));
+        }
+
+        TaskFilter byStatus = new TaskFilter(TaskStatus.PENDING, null, null, null, null, LocalDateTime.now().minusDays(7), null, null, null);
+        assertIndexedPlans(() -> taskRepository.findProjected(TaskSpecifications.forUser(userId, byStatus, today), TaskResponse.class, pageable, true));
+        assertIndexedPlans(() -> taskRepository.findProjected(TaskSpecifications.forUser(userId, byStatus, today), TaskSummaryResponse.class, pageable, false));
+    }
+
+    @Test
+    @DisplayName("Stats reads should use indexes")
+    void testStatsQueries() {
+        assertIndexedPlans(() -> taskCounterRepository.findById(userId));
+        assertIndexedPlans(() -> taskRepository.countOverdue(userId, LocalDate.now(), TaskStatus.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("Counter writes and the repair job should use indexes")
+    void testCounterQueries() {
+        assertIndexedPlans(() -> taskCounterRepository.lockAll(List.of(userId)));
+        assertIndexedPlans(() -> taskCounterRepository.insertIfAbsent(userId));
+        assertIndexedPlans(() -> taskCounterRepository.applyDelta(userId, -1, 0, 1, 0, 0, 0, 0));
+        assertIndexedPlans(() -> taskCounterRepository.applyOverdueDelta(userId, 1, LocalDate.now()));
+        assertIndexedPlans(() -> taskCounterRepository.resetOverdue(userId, 0, LocalDate.now()));
+        assertIndexedPlans(() -> userRepository.findIdsAfter(0L, Limit.of(500)));
+        // job noturno: agrupar as tarefas de um lote de usuários pode ordenar as linhas do lote (fora das requisições)
+        assertIndexedPlans("groups a batch of users' tasks", () -> taskRepository.countGroupsByUserIds(List.of(userId, userId + 1)));
+    }
+
+    @Test
+    @DisplayName("Full-text search should use indexes")
+    void testSearchQueries() {
+        // relevância (ts_rank) não vem de índice: ordena só as tarefas do usuário que casam com a busca
+        String ranking = "ordered by ts_rank";
+
+        assertIndexedPlans(ranking, () -> taskSearchRepository.search(userId, "task", null, 21));
+        assertIndexedPlans(ranking, () -> taskSearchRepository.search(userId, "task -description", new SearchCursor(0.5f, taskId), 21));
+    }
+
+    @Test
+    @DisplayName("Completion history and rollup backfill should use indexes")
+    void testCompletionRollupQueries() {
+        LocalDate today = LocalDate.now();
+
+        assertIndexedPlans(() -> taskDailyRollupRepository.findRange(userId, today.minusDays(29), today));
+        assertIndexedPlans(() -> taskRepository.findUserIdsWithUnrolledCompletions(0L, Limit.of(500)));
+        assertIndexedPlans(() -> taskRepository.findUnrolledCompletions(List.of(userId), Limit.of(500)));
+        assertIndexedPlans(() -> taskRepository.markRolledUp(List.of(taskId)));
+        assertIndexedPlans(() -> taskDailyRollupRepository.addCompleted(userId, today, 1));
+    }
+
+    @Test
+    @DisplayName("User lookups should use indexes")
+    void testUserLookups() {
+        assertIndexedPlans(() -> userRepository.findById(userId));
+        assertIndexedPlans(() -> userRepository.findByUsername("user42"));
+        assertIndexedPlans(() -> userRepository.findByEmail("user42@test.com"));
+        assertIndexedPlans(() -> userRepository.existsByUsername("user42"));
+        assertIndexedPlans(() -> userRepository.existsByEmail("user42@test.com"));
+        assertIndexedPlans(() -> userRepository.loadByUsername("user42"));
+    }
+
+    //Utility methods
+
+    private void assertIndexedPlans(Runnable query) {
+        assertIndexedPlans(null, query);
+    }
+
+    // allowedSort = por que esta consulta pode ter um Sort (null = nenhum). Seq Scan nunca é aceito.
+    // Roda numa transação desfeita no fim: as travas e os UPDATEs/INSERTs não mudam os dados semeados
+    private void assertIndexedPlans(String allowedSort, Runnable query) {
+        entityManagerFactory.getCache().evictAll(); // senão o cache de segundo nível responde sem SQL
+        CapturingDataSource.STATEMENTS.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+
+        List<String> statements = List.copyOf(CapturingDataSource.STATEMENTS);
+        assertFalse(statements.isEmpty(), "No SQL was captured");
+
+        for (String sql : statements) {
+            JsonNode plan = explain(sql);
+            List<String> badNodes = new ArrayList<>();
+            collectBadNodes(plan, allowedSort != null, badNodes);
+
+            assertTrue(badNodes.isEmpty(), () -> "Plan has " + badNodes + " for:\n" + sql + "\n" + plan.toPrettyString());
+        }
+    }
+
+    // GENERIC_PLAN aceita $1, $2... sem valores: é o plano que o driver passa a reutilizar após algumas execuções
+    private JsonNode explain(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        String json = jdbcTemplate.queryForObject("EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numbered, String.class);
+        try {
+            return objectMapper.readTree(json).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan for " + sql, e);
+        }
+    }
+
+    private static void collectBadNodes(JsonNode node, boolean sortAllowed, List<String> badNodes) {
+        String nodeType = node.path("Node Type").asText();
+
+        if (nodeType.equals("Seq Scan") || (!sortAllowed && SORT_NODES.contains(nodeType))) {
+            badNodes.add(nodeType + (node.has("Relation Name") ? " on " + node.get("Relation Name").asText() : ""));
+        }
+
+        for (JsonNode child : node.path("Plans")) {
+            collectBadNodes(child, sortAllowed, badNodes);
+        }
+    }
+
+    /**
+     * Records the SQL of every statement prepared on the DataSource, so the
+     * JDBC repositories are checked as well as Hibernate.
+     */
+    @TestConfiguration
+    static class CapturingDataSource {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        // static: um BeanPostProcessor precisa existir antes dos outros beans de configuração
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return capturing(super.getConnection());
+                        }
+
+                        @Override
+                        public Connection getConnection(String username, String password) throws SQLException {
+                            return capturing(super.getConnection(username, password));
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            STATEMENTS.add(sql);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
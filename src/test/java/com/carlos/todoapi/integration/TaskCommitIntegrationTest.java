@@ -0,0 +1,327 @@
+package com.carlos.todoapi.integration;
+
+import com.carlos.todoapi.dto.request.CreateTaskRequest;
+import com.carlos.todoapi.dto.request.LoginRequest;
+import com.carlos.todoapi.dto.request.RegisterRequest;
+import com.carlos.todoapi.dto.request.UpdateTaskRequest;
+import com.carlos.todoapi.dto.response.LoginResponse;
+import com.carlos.todoapi.dto.response.TaskCompletionHistoryResponse;
+import com.carlos.todoapi.dto.response.TaskResponse;
+import com.carlos.todoapi.dto.response.TaskStatsResponse;
+import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.exception.PreconditionFailedException;
+import com.carlos.todoapi.repository.UserRepository;
+import com.carlos.todoapi.service.TaskCompletionRollup;
+import com.carlos.todoapi.service.TaskCounters;
+import com.carlos.todoapi.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Task flows that depend on what happens at commit (flush, timestamps,
+ * locks, caches dropped after commit). No test-managed transaction here:
+ * every request commits for real, so the user and its rows are removed after
+ * each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TaskCommitIntegrationTest {
+
+    private static final String USERNAME = "commituser";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskCounters taskCounters;
+
+    @Autowired
+    private TaskCompletionRollup taskCompletionRollup;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RegisterRequest(USERNAME, "commituser@test.com", "password123"))));
+
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequest(USERNAME, "password123"))))
+                .andReturn();
+
+        jwtToken = objectMapper.readValue(result.getResponse().getContentAsString(), LoginResponse.class).token();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByUsername(USERNAME).ifPresent(user -> {
+            jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM task_daily_rollup WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM task_counters WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        });
+        // os DELETEs por JDBC não passam pelo Hibernate: username -> id ficaria no cache de natural id
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    @DisplayName("Should return the committed ETag so it can be used as If-Match")
+    void testUpdateTask_ETagRoundTrip() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTaskRequest("ETag task", null, null, null, null))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long taskId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        MvcResult patched = mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String patchETag = patched.getResponse().getHeader(HttpHeaders.ETAG);
+
+        //the ETag returned by the write is the one stored by the commit
+        MvcResult read = mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(read.getResponse().getHeader(HttpHeaders.ETAG), patchETag);
+
+        MvcResult updated = mockMvc.perform(put("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header(HttpHeaders.IF_MATCH, patchETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"ETag task renamed\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("ETag task renamed"))
+                .andReturn();
+
+        //the old ETag no longer matches
+        mockMvc.perform(put("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header(HttpHeaders.IF_MATCH, patchETag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Lost update\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header(HttpHeaders.IF_MATCH, updated.getResponse().getHeader(HttpHeaders.ETAG))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should reject the second of two concurrent updates sent with the same If-Match")
+    void testUpdateTask_ConcurrentIfMatch() throws Exception {
+        //Arrange
+        Long taskId = createTask("Contended task");
+        Long userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+        String etag = taskService.getTaskETag(taskId, userId);
+
+        //Act
+        Future<TaskResponse> second = writeWhileAnotherIsOpen(
+                () -> taskService.updateTask(taskId, new UpdateTaskRequest("First writer", null, null, null, null), userId, etag),
+                () -> taskService.updateTask(taskId, new UpdateTaskRequest("Second writer", null, null, null, null), userId, etag));
+
+        //Assert
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(PreconditionFailedException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should count a task once when two requests complete it concurrently")
+    void testUpdateTaskStatus_ConcurrentCounters() throws Exception {
+        //Arrange
+        Long taskId = createTask("Raced task");
+        Long userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+
+        //Act
+        Future<TaskResponse> second = writeWhileAnotherIsOpen(
+                () -> taskService.updateTaskStatus(taskId, TaskStatus.COMPLETED, userId, null),
+                () -> taskService.updateTaskStatus(taskId, TaskStatus.COMPLETED, userId, null));
+        second.get(10, TimeUnit.SECONDS);
+
+        //Assert
+        TaskStatsResponse stats = taskCounters.getStats(userId);
+        assertEquals(1L, stats.total());
+        assertEquals(0L, stats.byStatus().get(TaskStatus.PENDING));
+        assertEquals(1L, stats.byStatus().get(TaskStatus.COMPLETED));
+    }
+
+    @Test
+    @DisplayName("Should add one completion to the daily rollup when two requests complete a task concurrently")
+    void testUpdateTaskStatus_ConcurrentRollup() throws Exception {
+        //Arrange
+        Long taskId = createTask("Raced completion");
+        Long userId = userRepository.findByUsername(USERNAME).orElseThrow().getId();
+
+        //Act
+        Future<TaskResponse> second = writeWhileAnotherIsOpen(
+                () -> taskService.updateTaskStatus(taskId, TaskStatus.COMPLETED, userId, null),
+                () -> taskService.updateTaskStatus(taskId, TaskStatus.COMPLETED, userId, null));
+        second.get(10, TimeUnit.SECONDS);
+
+        //Assert
+        TaskCompletionHistoryResponse history = taskCompletionRollup.getHistory(userId, LocalDate.now(), LocalDate.now());
+        assertEquals(1L, history.total());
+    }
+
+    @Test
+    @DisplayName("Should keep cached totals in sync with committed task writes")
+    void testGetTasks_CachedTotals() throws Exception {
+        Long[] taskIds = new Long[2];
+        for (int i = 0; i < 2; i++) {
+            CreateTaskRequest request = new CreateTaskRequest(
+                    "Task " + i, null, null, null, null
+            );
+
+            MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andReturn();
+
+            taskIds[i] = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        }
+
+        //loads the counts into the cache
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(patch("/api/tasks/" + taskIds[0] + "/status")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/tasks/" + taskIds[1])
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/tasks?status=COMPLETED")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mockMvc.perform(get("/api/tasks?status=PENDING&size=1")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        //slice mode: no total at all
+        mockMvc.perform(get("/api/tasks?withTotal=false")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.last").value(true));
+    }
+
+    //Utility methods
+
+    private Long createTask(String title) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTaskRequest(title, null, null, null, null))))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        return objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    // A primeira escrita roda e segura a transação aberta; a segunda tem que esperar as travas em vez de ler a
+    // versão de antes do commit. Devolve a segunda, já liberada (sucesso ou falha fica para o teste)
+    private <T> Future<T> writeWhileAnotherIsOpen(Runnable first, Callable<T> second) throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> firstWrite = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                first.run();
+                firstWritten.countDown();
+                try {
+                    releaseFirst.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+
+            Future<T> secondWrite = executor.submit(second);
+
+            Thread.sleep(300);
+            assertFalse(secondWrite.isDone());
+
+            releaseFirst.countDown();
+            firstWrite.get(10, TimeUnit.SECONDS);
+
+            // espera a segunda terminar antes de desligar o executor (shutdownNow a interromperia)
+            try {
+                secondWrite.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // o teste confere a falha pelo Future
+            }
+            return secondWrite;
+        } finally {
+            releaseFirst.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
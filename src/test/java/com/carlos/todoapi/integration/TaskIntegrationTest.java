@@ -5,8 +5,17 @@ import com.carlos.todoapi.dto.request.CreateTaskRequest;
 import com.carlos.todoapi.dto.request.LoginRequest;
 import com.carlos.todoapi.dto.request.RegisterRequest;
 import com.carlos.todoapi.dto.response.LoginResponse;
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.entity.TaskPriority;
 import com.carlos.todoapi.entity.TaskStatus;
+import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.service.TaskCompletionRollup;
+import com.carlos.todoapi.service.TaskCounters;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +29,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +52,18 @@ public class TaskIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskCounters taskCounters;
+
+    @Autowired
+    private TaskCompletionRollup taskCompletionRollup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private String jwtToken;
 
     @BeforeEach
@@ -122,6 +151,54 @@ public class TaskIntegrationTest {
                     .andExpect(jsonPath("$.totalElements").value(3));
     }
 
+    @Test
+    @DisplayName("Should walk all tasks with cursor pagination")
+    void testGetTasks_CursorPagination() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            CreateTaskRequest request = new CreateTaskRequest(
+                    "Task " + i, null, null, null, null
+            );
+
+            mockMvc.perform(post("/api/tasks")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+        }
+
+        Set<Long> seenIds = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+
+        do {
+            MvcResult result = mockMvc.perform(get("/api/tasks")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .param("cursor", cursor)
+                            .param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn();
+
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            body.get("content").forEach(task -> assertTrue(seenIds.add(task.get("id").asLong())));
+
+            cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, seenIds.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for malformed cursor")
+    void testGetTasks_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
     @Test
     @DisplayName("Should filter tasks by status")
     void testGetTasks_FilterByStatus() throws Exception {
@@ -160,6 +237,363 @@ public class TaskIntegrationTest {
                 .andExpect(jsonPath("$.content[0].status").value("PENDING"));
     }
 
+    @Test
+    @DisplayName("Should combine priority, overdue and due-date filters")
+    void testGetTasks_CombinedFilters() throws Exception {
+        CreateTaskRequest[] requests = {
+                new CreateTaskRequest("Late high", null, null, TaskPriority.HIGH, LocalDate.now().plusDays(1)),
+                new CreateTaskRequest("Late high done", null, TaskStatus.COMPLETED, TaskPriority.HIGH, LocalDate.now().plusDays(1)),
+                new CreateTaskRequest("Future high", null, null, TaskPriority.HIGH, LocalDate.now().plusDays(10)),
+                new CreateTaskRequest("Late low", null, null, TaskPriority.LOW, LocalDate.now().plusDays(1)),
+                new CreateTaskRequest("No due date", null, null, null, null)
+        };
+
+        for (CreateTaskRequest request : requests) {
+            mockMvc.perform(post("/api/tasks")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)));
+        }
+
+        //the API only accepts future due dates: move the "Late" ones to the past directly
+        entityManager.createQuery("UPDATE Task t SET t.dueDate = :past WHERE t.title LIKE 'Late%'")
+                .setParameter("past", LocalDate.now().minusDays(2))
+                .executeUpdate();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/tasks?priority=HIGH&overdue=true")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Late high"));
+
+        mockMvc.perform(get("/api/tasks?priority=HIGH&dueFrom=" + LocalDate.now() + "&view=summary")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Future high"))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist());
+
+        mockMvc.perform(get("/api/tasks?overdue=false&withTotal=false")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/api/tasks?dueFrom=not-a-date")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should sort by indexed properties with id as tie-breaker and reject others")
+    void testGetTasks_SortWhitelist() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/tasks")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CreateTaskRequest("Same title", null, null, null, null))));
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/tasks?sort=title,asc")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode content = objectMapper.readTree(result.getResponse().getContentAsString()).get("content");
+        assertTrue(content.get(0).get("id").asLong() < content.get(1).get("id").asLong());
+        assertTrue(content.get(1).get("id").asLong() < content.get(2).get("id").asLong());
+
+        mockMvc.perform(get("/api/tasks?sort=description")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/tasks?sort=priority&sort=title")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should sort priority by meaning, not alphabetically")
+    void testGetTasks_PrioritySort() throws Exception {
+        for (TaskPriority priority : new TaskPriority[]{TaskPriority.MEDIUM, TaskPriority.HIGH, TaskPriority.LOW}) {
+            mockMvc.perform(post("/api/tasks")
+                    .header("Authorization", "Bearer " + jwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CreateTaskRequest("Task " + priority, null, null, priority, null))));
+        }
+
+        mockMvc.perform(get("/api/tasks?sort=priority,desc")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].priority").value("HIGH"))
+                .andExpect(jsonPath("$.content[1].priority").value("MEDIUM"))
+                .andExpect(jsonPath("$.content[2].priority").value("LOW"));
+    }
+
+    @Test
+    @DisplayName("Should keep task stats counters in sync with writes")
+    void testGetTaskStats() throws Exception {
+        Long[] taskIds = new Long[3];
+        CreateTaskRequest[] requests = {
+                new CreateTaskRequest("High task", null, null, TaskPriority.HIGH, LocalDate.now().plusDays(1)),
+                new CreateTaskRequest("Low task", null, TaskStatus.IN_PROGRESS, TaskPriority.LOW, null),
+                new CreateTaskRequest("Plain task", null, null, null, null)
+        };
+
+        for (int i = 0; i < requests.length; i++) {
+            MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requests[i])))
+                    .andReturn();
+
+            taskIds[i] = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        }
+
+        //the API only accepts future due dates: make the first one overdue directly
+        entityManager.createQuery("UPDATE Task t SET t.dueDate = :past WHERE t.id = :id")
+                .setParameter("past", LocalDate.now().minusDays(1))
+                .setParameter("id", taskIds[0])
+                .executeUpdate();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/tasks/stats")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byStatus.PENDING").value(2))
+                .andExpect(jsonPath("$.byStatus.IN_PROGRESS").value(1))
+                .andExpect(jsonPath("$.byPriority.HIGH").value(1))
+                .andExpect(jsonPath("$.withoutPriority").value(1))
+                .andExpect(jsonPath("$.overdue").value(1));
+
+        mockMvc.perform(patch("/api/tasks/" + taskIds[0] + "/status")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/tasks/" + taskIds[2])
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/tasks/stats")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byStatus.PENDING").value(0))
+                .andExpect(jsonPath("$.byStatus.COMPLETED").value(1))
+                .andExpect(jsonPath("$.withoutPriority").value(0))
+                .andExpect(jsonPath("$.overdue").value(0));
+    }
+
+    @Test
+    @DisplayName("Should repair drifted task counters")
+    void testTaskCounters_Repair() throws Exception {
+        mockMvc.perform(post("/api/tasks")
+                .header("Authorization", "Bearer " + jwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CreateTaskRequest("Counted task", null, null, null, null))));
+
+        entityManager.createQuery("UPDATE TaskCounter c SET c.pending = 42, c.noPriority = 0").executeUpdate();
+        entityManager.clear();
+
+        taskCounters.repairAll();
+
+        mockMvc.perform(get("/api/tasks/stats")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byStatus.PENDING").value(1))
+                .andExpect(jsonPath("$.withoutPriority").value(1));
+    }
+
+    @Test
+    @DisplayName("Should track completions per day from the rollup")
+    void testGetCompletionHistory() throws Exception {
+        Long[] taskIds = new Long[2];
+        for (int i = 0; i < 2; i++) {
+            MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateTaskRequest("Rollup task " + i, null, null, null, null))))
+                    .andReturn();
+
+            taskIds[i] = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        }
+
+        for (Long taskId : taskIds) {
+            mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                            .header("Authorization", "Bearer " + jwtToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"status\":\"COMPLETED\"}"))
+                    .andExpect(status().isOk());
+        }
+
+        //reopening one of them takes it back out of today's row
+        mockMvc.perform(put("/api/tasks/" + taskIds[1])
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk());
+
+        LocalDate today = LocalDate.now();
+
+        mockMvc.perform(get("/api/tasks/stats/completions")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("from", today.minusDays(2).toString())
+                        .param("to", today.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.days.length()").value(3))
+                .andExpect(jsonPath("$.days[0].completed").value(0))
+                .andExpect(jsonPath("$.days[2].date").value(today.toString()))
+                .andExpect(jsonPath("$.days[2].completed").value(1));
+
+        mockMvc.perform(get("/api/tasks/stats/completions")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("from", today.toString())
+                        .param("to", today.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should backfill completions that predate the rollup")
+    void testCompletionRollup_Backfill() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTaskRequest("Old completed task", null, null, null, null))))
+                .andReturn();
+        Long taskId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        //completed before the rollup existed: no completedAt and no rollup row
+        LocalDateTime completedAt = LocalDate.now().minusDays(3).atTime(10, 0);
+        entityManager.createQuery("UPDATE Task t SET t.status = :completed, t.updatedAt = :completedAt WHERE t.id = :id")
+                .setParameter("completed", TaskStatus.COMPLETED)
+                .setParameter("completedAt", completedAt)
+                .setParameter("id", taskId)
+                .executeUpdate();
+        entityManager.clear();
+
+        taskCompletionRollup.backfillAll();
+        taskCompletionRollup.backfillAll();
+
+        mockMvc.perform(get("/api/tasks/stats/completions")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("from", completedAt.toLocalDate().toString())
+                        .param("to", completedAt.toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1));
+    }
+
+    @Test
+    @DisplayName("Should load description lazily and leave it out of summary listings")
+    void testTaskDescription_Lazy() throws Exception {
+        CreateTaskRequest request = new CreateTaskRequest(
+                "Task with notes", "A long pasted note", null, null, null
+        );
+
+        MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        Long taskId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Task task = taskRepository.findById(taskId).orElseThrow();
+        assertFalse(Hibernate.isPropertyInitialized(task, "description"));
+        assertEquals("A long pasted note", task.getDescription());
+
+        mockMvc.perform(get("/api/tasks?view=summary")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Task with notes"))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mockMvc.perform(get("/api/tasks?view=sumary")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(jsonPath("$.description").value("A long pasted note"));
+    }
+
+    @Test
+    @DisplayName("Should answer conditional requests on a task with ETags")
+    void testTaskETag_ConditionalRequests() throws Exception {
+        CreateTaskRequest request = new CreateTaskRequest(
+                "Polled task", null, null, null, null
+        );
+
+        MvcResult createResult = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn();
+
+        Long taskId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-Match", "\"stale\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    @DisplayName("Should return 304 for the task list until the user writes")
+    void testTaskListETag_ConditionalRequests() throws Exception {
+        String etag = mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateTaskRequest("New task", null, null, null, null))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
     @Test
     @DisplayName("Should delete task successfully")
     void testDeleteTask_Success() throws Exception {
@@ -189,7 +623,7 @@ public class TaskIntegrationTest {
     }
 
     @Test
-    @DisplayName("Should return 403 when trying to access another user's task")
+    @DisplayName("Should return 404 when trying to access another user's task")
     void testGetTask_UnauthorizedAccess() throws Exception {
         CreateTaskRequest request = new CreateTaskRequest(
                 "Private task", null, null, null, null
@@ -227,6 +661,6 @@ public class TaskIntegrationTest {
 
         mockMvc.perform(get("/api/tasks/" + taskId)
                 .header("Authorization", "Bearer " + loginResponse2.token()))
-                .andExpect(status().isForbidden());
+                .andExpect(status().isNotFound());
     }
 }
@@ -0,0 +1,53 @@
+package com.carlos.todoapi.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskJsonRepositoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should write control-character escapes in Jackson's uppercase hex")
+    void testUppercaseEscapes_MatchesJackson() throws Exception {
+        //Arrange
+        String title = "Esc\u001b[0m and \u007f\u0001";
+        String postgres = "\"Esc\\u001b[0m and \u007f\\u0001\"";
+
+        //Act
+        String normalized = TaskJsonRepository.uppercaseEscapes(postgres);
+
+        //Assert
+        assertEquals(objectMapper.writeValueAsString(title), normalized);
+    }
+
+    @Test
+    @DisplayName("Should leave an escaped backslash followed by text untouched")
+    void testUppercaseEscapes_EscapedBackslash() {
+        //Arrange
+        String json = "{\"title\":\"C:\\\\users\\\\u001b\\\\abcdef\",\"description\":null}";
+
+        //Act
+        String normalized = TaskJsonRepository.uppercaseEscapes(json);
+
+        //Assert
+        assertEquals(json, normalized);
+    }
+
+    @Test
+    @DisplayName("Should have a column for every sort TaskSorts accepts and reject any other")
+    void testOrderBy_MatchesTaskSorts() {
+        //Act and Assert
+        for (String property : TaskSorts.SORTABLE) {
+            Sort sort = TaskSorts.indexed(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, property))).getSort();
+            assertTrue(TaskJsonRepository.orderBy(sort).startsWith(" ORDER BY t."), property);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> TaskJsonRepository.orderBy(Sort.by("status")));
+    }
+}
@@ -0,0 +1,40 @@
+package com.carlos.todoapi.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should request rehash for hashes with higher or lower cost")
+    void testUpgradeEncoding_DifferentCost() {
+        //Arrange
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+        String lower = new BCryptPasswordEncoder(4).encode("password123");
+        String higher = new BCryptPasswordEncoder(6).encode("password123");
+        String same = encoder.encode("password123");
+
+        //Act and Assert
+        assertTrue(encoder.upgradeEncoding(lower));
+        assertTrue(encoder.upgradeEncoding(higher));
+        assertFalse(encoder.upgradeEncoding(same));
+        assertTrue(encoder.matches("password123", higher));
+    }
+
+    @Test
+    @DisplayName("Should keep calibrated strength within bounds")
+    void testCalibrated_Bounds() {
+        //Act
+        AdaptiveBCryptPasswordEncoder zeroBudget = AdaptiveBCryptPasswordEncoder.calibrated(Duration.ZERO, 4, 6);
+        AdaptiveBCryptPasswordEncoder largeBudget = AdaptiveBCryptPasswordEncoder.calibrated(Duration.ofSeconds(10), 4, 5);
+
+        //Assert
+        assertEquals(4, zeroBudget.getStrength());
+        assertEquals(5, largeBudget.getStrength());
+    }
+}
@@ -0,0 +1,93 @@
+package com.carlos.todoapi.security;
+
+import com.carlos.todoapi.exception.AuthCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    // encoder que bloqueia até o teste liberar, simulando um hash lento
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should delegate hashing to the bounded pool and record latency")
+    void testEncodeAndMatches_Success() {
+        //Arrange
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 2, meterRegistry);
+        release.countDown();
+
+        //Act
+        String hash = encoder.encode("password123");
+
+        //Assert
+        assertEquals("hash:password123", hash);
+        assertTrue(encoder.matches("password123", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should fail fast when the hashing queue is full")
+    void testEncode_QueueFull() throws Exception {
+        //Arrange: one running, one queued
+        encoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 2, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitForQueuedTask();
+
+        //Act and Assert
+        AuthCapacityExceededException ex = assertThrows(AuthCapacityExceededException.class, () -> encoder.encode("c"));
+        assertEquals(2, ex.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() >= 1) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("Task was never queued");
+    }
+}
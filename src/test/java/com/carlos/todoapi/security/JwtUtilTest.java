@@ -0,0 +1,87 @@
+package com.carlos.todoapi.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "cmokzQQenaYRTzoaCx/hW8luPFqFoRbkRLaJlN8m5Hs=";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(3600000L);
+    }
+
+    private JwtUtil newJwtUtil(long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", SECRET);
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        util.init();
+        return util;
+    }
+
+    @Test
+    @DisplayName("Should verify token and return its claims")
+    void testVerifyToken_Success() {
+        //Arrange
+        String token = jwtUtil.generateToken("testuser");
+
+        //Act
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+
+        //Assert
+        assertEquals("testuser", verified.subject());
+        assertNotNull(verified.issuedAt());
+        assertNotNull(verified.expiresAt());
+        assertTrue(verified.expiresAt().isAfter(verified.issuedAt()));
+    }
+
+    @Test
+    @DisplayName("Should carry user id and roles in token generated for principal")
+    void testVerifyToken_IdentityClaims() {
+        //Arrange
+        UserPrincipal principal = new UserPrincipal(42L, "testuser", "encoded", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        String token = jwtUtil.generateToken(principal);
+
+        //Act
+        VerifiedToken verified = jwtUtil.verifyToken(token);
+
+        //Assert
+        assertTrue(verified.hasIdentityClaims());
+        assertEquals(42L, verified.userId());
+        assertEquals(List.of("ROLE_USER"), verified.roles());
+        assertEquals("testuser", verified.subject());
+    }
+
+    @Test
+    @DisplayName("Should reject tampered token")
+    void testVerifyToken_Tampered() {
+        //Arrange
+        String token = jwtUtil.generateToken("testuser");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        //Act and Assert
+        assertThrows(JwtException.class, () -> jwtUtil.verifyToken(tampered));
+    }
+
+    @Test
+    @DisplayName("Should reject expired token")
+    void testVerifyToken_Expired() {
+        //Arrange
+        String token = newJwtUtil(-1000L).generateToken("testuser");
+
+        //Act and Assert
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(token));
+    }
+}
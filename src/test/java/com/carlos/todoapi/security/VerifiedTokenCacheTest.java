@@ -0,0 +1,75 @@
+package com.carlos.todoapi.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache tokenCache;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new VerifiedTokenCache(true, 100, meterRegistry);
+        verifications = new AtomicInteger();
+    }
+
+    private Function<String, VerifiedToken> verifierExpiringAt(Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return new VerifiedToken("jti-1", "testuser", 1L, List.of("ROLE_USER"), expiresAt, Instant.now());
+        };
+    }
+
+    @Test
+    @DisplayName("Should verify token only once while it is cached")
+    void testGetOrVerify_Hit() {
+        //Arrange
+        Function<String, VerifiedToken> verifier = verifierExpiringAt(Instant.now().plusSeconds(60));
+
+        //Act
+        VerifiedToken first = tokenCache.getOrVerify("token-a", verifier);
+        VerifiedToken second = tokenCache.getOrVerify("token-a", verifier);
+
+        //Assert
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should verify again once the token expiry has passed")
+    void testGetOrVerify_Expired() {
+        //Arrange
+        Function<String, VerifiedToken> verifier = verifierExpiringAt(Instant.now().minusSeconds(1));
+
+        //Act
+        tokenCache.getOrVerify("token-b", verifier);
+        tokenCache.getOrVerify("token-b", verifier);
+
+        //Assert
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void testGetOrVerify_Failure() {
+        //Act and Assert
+        assertThrows(IllegalArgumentException.class, () -> tokenCache.getOrVerify("bad", token -> {
+            throw new IllegalArgumentException("invalid");
+        }));
+
+        assertEquals(0, tokenCache.size());
+    }
+}
@@ -9,6 +9,12 @@ import com.carlos.todoapi.exception.EmailAlreadyExistsException;
 import com.carlos.todoapi.exception.UserAlreadyExistsException;
 import com.carlos.todoapi.repository.UserRepository;
 import com.carlos.todoapi.security.JwtUtil;
+import com.carlos.todoapi.security.TokenDenylist;
+import com.carlos.todoapi.security.TokenRevocationStore;
+import com.carlos.todoapi.security.UserPrincipal;
+import com.carlos.todoapi.security.VerifiedToken;
+import com.carlos.todoapi.security.VerifiedTokenCache;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,12 +22,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -41,6 +53,18 @@ public class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private TokenRevocationStore revocationStore;
+
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
     @InjectMocks
     private AuthService authService;
 
@@ -67,8 +91,6 @@ public class AuthServiceTest {
     void testRegisterUser_Success() {
 
         //Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
         when(userRepository.save(any(User.class))).thenReturn(mockUser);
 
@@ -80,8 +102,8 @@ public class AuthServiceTest {
         assertEquals("testuser", response.username());
         assertEquals("test@example.com", response.email());
 
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
     }
@@ -90,31 +112,35 @@ public class AuthServiceTest {
     @DisplayName("Should throw exception when username already exists")
     void testRegisterUser_UsernameExists() {
         //Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         //Act and Assert
         assertThrows(UserAlreadyExistsException.class, () -> {
             authService.registerUser(validRegisterRequest);
         });
 
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository).save(any(User.class));
     }
 
     @Test
     @DisplayName("Should throw exception when email already exists")
     void testRegisterUser_EmailExists() {
         //Arrange
-        when(userRepository.existsByUsername(anyString())).thenReturn(false);
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("encoded_password");
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation(User.EMAIL_CONSTRAINT));
 
         //Act and Assert
         assertThrows(EmailAlreadyExistsException.class, () -> {
             authService.registerUser(validRegisterRequest);
         });
 
-        verify(userRepository).existsByEmail("test@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository).save(any(User.class));
+    }
+
+    private DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), constraintName));
     }
 
     @Test
@@ -123,10 +149,12 @@ public class AuthServiceTest {
         //Arrange
         LoginRequest loginRequest = new LoginRequest("testuser", "password123");
         Authentication authentication = mock(Authentication.class);
+        UserPrincipal principal = new UserPrincipal(1L, "testuser", "encoded_password", AuthorityUtils.createAuthorityList("ROLE_USER"));
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
         when(authentication.getName()).thenReturn("testuser");
-        when(jwtUtil.generateToken(anyString())).thenReturn("mock_jwt_token");
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(jwtUtil.generateToken(any(UserPrincipal.class))).thenReturn("mock_jwt_token");
         when(jwtUtil.getExpiration()).thenReturn(3600000L);
 
         //Act
@@ -140,7 +168,7 @@ public class AuthServiceTest {
         assertEquals(3600000L, response.expiresIn());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtil).generateToken("testuser");
+        verify(jwtUtil).generateToken(principal);
     }
 
     @Test
@@ -157,6 +185,24 @@ public class AuthServiceTest {
         });
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtil, never()).generateToken(anyString());
+        verify(jwtUtil, never()).generateToken(any(UserPrincipal.class));
+    }
+
+    @Test
+    @DisplayName("Should revoke token id until token expiry on logout")
+    void testLogoutUser_Success() {
+        //Arrange
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        VerifiedToken verified = new VerifiedToken("jti-1", "testuser", 1L, List.of("ROLE_USER"), expiresAt, Instant.now());
+        when(jwtUtil.verifyToken("jwt")).thenReturn(verified);
+
+        //Act
+        authService.logoutUser("jwt");
+
+        //Assert
+        verify(revocationStore).save("jti-1", expiresAt);
+        verify(tokenDenylist).revoke("jti-1", expiresAt);
+        verify(tokenCache).invalidate("jwt");
+        verify(invalidationBus).tokenRevoked("jti-1", expiresAt);
     }
 }
@@ -0,0 +1,115 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.entity.Task;
+import com.carlos.todoapi.security.TokenDenylist;
+import com.carlos.todoapi.security.TokenRevocationStore;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheInvalidationBusTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TaskListCache taskListCache;
+
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    @Mock
+    private TaskSuggestIndex taskSuggestIndex;
+
+    @Mock
+    private TokenDenylist tokenDenylist;
+
+    @Mock
+    private TokenRevocationStore revocationStore;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    private CacheInvalidationBus invalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl("jdbc:postgresql://localhost:5432/todoapi");
+
+        invalidationBus = new CacheInvalidationBus(jdbcTemplate, dataSourceProperties, taskListCache, taskCountCache,
+                taskSuggestIndex, tokenDenylist, revocationStore, entityManagerFactory, true);
+    }
+
+    @Test
+    @DisplayName("Should coalesce repeated events into a single NOTIFY")
+    void testFlush_Coalesces() {
+        //Arrange
+        for (int i = 0; i < 100; i++) {
+            invalidationBus.taskChanged(1L, 10L);
+        }
+        invalidationBus.userChanged(1L);
+
+        //Act
+        invalidationBus.flush();
+        invalidationBus.flush();
+
+        //Assert
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Object.class), eq(CacheInvalidationBus.CHANNEL), payload.capture());
+
+        String[] events = payload.getValue().split(",");
+        assertEquals(3, events.length); // id do nó + 2 eventos
+    }
+
+    @Test
+    @DisplayName("Should keep events queued when publishing fails")
+    void testFlush_RequeuesOnFailure() {
+        //Arrange
+        invalidationBus.tokenRevoked("jti-1", Instant.ofEpochSecond(4102444800L));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Object.class), eq(CacheInvalidationBus.CHANNEL), anyString()))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(null);
+
+        //Act
+        invalidationBus.flush();
+        invalidationBus.flush();
+
+        //Assert
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Object.class), eq(CacheInvalidationBus.CHANNEL), payload.capture());
+        assertTrue(payload.getValue().endsWith(",r:jti-1:4102444800"));
+    }
+
+    @Test
+    @DisplayName("Should drop local entries for events published by another node")
+    void testOnNotification_AppliesEvents() {
+        //Arrange
+        Cache secondLevelCache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+
+        //Act
+        invalidationBus.onNotification("other-node,t:1:10,r:jti-1:4102444800");
+
+        //Assert
+        verify(taskListCache).invalidate(1L);
+        verify(taskCountCache).invalidate(1L);
+        verify(secondLevelCache).evict(Task.class, 10L);
+        verify(tokenDenylist).revoke("jti-1", Instant.ofEpochSecond(4102444800L));
+    }
+}
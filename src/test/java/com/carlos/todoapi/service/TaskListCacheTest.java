@@ -0,0 +1,86 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.request.TaskView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskListCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskListCache taskListCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskListCache = new TaskListCache(true, 100, 60, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private Slice<?> load() {
+        loads.incrementAndGet();
+        return new SliceImpl<>(List.of("task-" + loads.get()));
+    }
+
+    @Test
+    @DisplayName("Should serve the same page from cache until the user writes")
+    void testGet_InvalidatedByVersion() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+
+        //Act
+        Slice<?> first = taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, pageable, this::load);
+        Slice<?> second = taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, pageable, this::load);
+        taskListCache.invalidate(1L);
+        Slice<?> third = taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, pageable, this::load);
+
+        //Assert
+        assertSame(first, second);
+        assertNotSame(first, third);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks.list-pages").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not share pages between users or page specs")
+    void testGet_SeparateKeys() {
+        //Act
+        taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+        taskListCache.get(2L, taskListCache.currentVersion(2L), null, null, TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+        taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, PageRequest.of(1, 10), this::load);
+        taskListCache.invalidate(2L);
+        taskListCache.get(1L, taskListCache.currentVersion(1L), null, null, TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+
+        //Assert
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not serve a date-dependent page on another day")
+    void testGet_SeparateDays() {
+        //Arrange
+        LocalDate today = LocalDate.now();
+        long version = taskListCache.currentVersion(1L);
+
+        //Act
+        taskListCache.get(1L, version, null, today, TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+        taskListCache.get(1L, version, null, today, TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+        taskListCache.get(1L, version, null, today.plusDays(1), TaskView.FULL, true, PageRequest.of(0, 10), this::load);
+
+        //Assert
+        assertEquals(2, loads.get());
+        assertNotEquals(TaskETags.forList(version, today), TaskETags.forList(version, today.plusDays(1)));
+    }
+}
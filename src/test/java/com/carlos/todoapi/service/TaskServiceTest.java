@@ -1,16 +1,20 @@
 package com.carlos.todoapi.service;
 
 import com.carlos.todoapi.dto.request.CreateTaskRequest;
+import com.carlos.todoapi.dto.request.SearchCursor;
+import com.carlos.todoapi.dto.response.CursorPageResponse;
+import com.carlos.todoapi.dto.response.TaskSearchResult;
 import com.carlos.todoapi.dto.response.TaskResponse;
 import com.carlos.todoapi.entity.Task;
 import com.carlos.todoapi.entity.TaskStatus;
 import com.carlos.todoapi.entity.User;
 import com.carlos.todoapi.exception.TaskNotFoundException;
-import com.carlos.todoapi.exception.UnauthorizedAccessException;
-import com.carlos.todoapi.exception.UserNotFoundException;
 import com.carlos.todoapi.mapper.TaskMapper;
+import com.carlos.todoapi.repository.TaskJsonRepository;
 import com.carlos.todoapi.repository.TaskRepository;
+import com.carlos.todoapi.repository.TaskSearchRepository;
 import com.carlos.todoapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,8 +26,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +49,30 @@ public class TaskServiceTest {
     @Mock
     private TaskMapper taskMapper;
 
+    @Mock
+    private TaskCountCache taskCountCache;
+
+    @Mock
+    private TaskJsonRepository taskJsonRepository;
+
+    @Mock
+    private TaskListCache taskListCache;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private TaskSearchRepository taskSearchRepository;
+
+    @Mock
+    private TaskSuggestIndex taskSuggestIndex;
+
+    @Mock
+    private TaskCounters taskCounters;
+
+    @Mock
+    private TaskCompletionRollup taskCompletionRollup;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -76,38 +107,38 @@ public class TaskServiceTest {
     @DisplayName("Should create task successfully")
     void testCreateTask_Success() {
         //Arrange
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(mockUser));
+        when(userRepository.getReferenceById(anyLong())).thenReturn(mockUser);
         when(taskMapper.toEntity(any(CreateTaskRequest.class), any(User.class))).thenReturn(mockTask);
         when(taskRepository.save(any(Task.class))).thenReturn(mockTask);
         when(taskMapper.toResponse(any(Task.class))).thenReturn(mockTaskResponse);
 
         //Act
-        TaskResponse response = taskService.createTask(createRequest, "testuser");
+        TaskResponse response = taskService.createTask(createRequest, 1L);
 
         //Assert
         assertNotNull(response);
         assertEquals("Test Task", response.title());
         assertEquals(TaskStatus.PENDING, response.status());
 
-        verify(userRepository).findByUsername("testuser");
+        verify(userRepository).getReferenceById(1L);
         verify(taskRepository).save(any(Task.class));
 
     }
 
     @Test
-    @DisplayName("Should throw exception when user not found")
-    void testCreateTask_UserNotFound() {
+    @DisplayName("Should not query users table when creating task")
+    void testCreateTask_NoUserLookup() {
         //Arrange
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
-
-        //Act and Assert
-        assertThrows(UserNotFoundException.class, () -> {
-            taskService.createTask(createRequest, "nonexistent");
-        });
+        when(userRepository.getReferenceById(anyLong())).thenReturn(mockUser);
+        when(taskMapper.toEntity(any(CreateTaskRequest.class), any(User.class))).thenReturn(mockTask);
+        when(taskRepository.save(any(Task.class))).thenReturn(mockTask);
 
+        //Act
+        taskService.createTask(createRequest, 1L);
 
-        verify(userRepository).findByUsername("nonexistent");
-        verify(taskRepository, never()).save(any(Task.class));
+        //Assert
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(userRepository, never()).findById(anyLong());
     }
 
 
@@ -118,48 +149,131 @@ public class TaskServiceTest {
         Page<Task> taskPage = new PageImpl<>(Arrays.asList(mockTask));
         Pageable pageable = PageRequest.of(0, 10);
 
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(mockUser));
         when(taskRepository.findByUserId(anyLong(), any(Pageable.class))).thenReturn(taskPage);
         when(taskMapper.toResponse(any(Task.class))).thenReturn(mockTaskResponse);
 
         //Act
-        Page<TaskResponse> result = taskService.getTasksByUser("testuser", pageable);
+        Page<TaskResponse> result = taskService.getTasksByUser(1L, pageable);
 
         //Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals("Test Task", result.getContent().getFirst().title());
 
-        verify(userRepository).findByUsername("testuser");
+        verify(userRepository, never()).findByUsername(anyString());
         verify(taskRepository).findByUserId(eq(1L), any(Pageable.class));
     }
 
     @Test
-    @DisplayName("Should throw exception when acessing task from another user")
+    @DisplayName("Should list tasks with cached total instead of a count query")
+    void testGetTasksByUserAndStatus_UsesCachedTotal() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Slice<TaskResponse> taskSlice = new SliceImpl<>(Arrays.asList(mockTaskResponse), pageable, false);
+
+        when(taskRepository.findResponsesByUserId(1L, pageable)).thenReturn(taskSlice);
+        when(taskCountCache.count(1L, null)).thenReturn(1L);
+
+        //Act
+        Page<TaskResponse> result = taskService.getTasksByUserAndStatus(1L, null, pageable);
+
+        //Assert
+        assertEquals(1, result.getTotalElements());
+        verify(taskRepository, never()).findByUserId(anyLong(), any(Pageable.class));
+        verify(taskMapper, never()).toResponse(any(Task.class));
+    }
+
+    @Test
+    @DisplayName("Should wrap database-rendered rows without re-serializing them")
+    void testGetTaskJsonPage_RawRows() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 1);
+        when(taskJsonRepository.findJsonByUserIdAndStatus(1L, null, pageable, 2))
+                .thenReturn(List.of("{\"id\":2}", "{\"id\":1}"));
+
+        //Act
+        Slice<RawValue> result = taskService.getTaskJsonPage(1L, null, pageable, false);
+
+        //Assert
+        assertEquals(1, result.getNumberOfElements());
+        assertTrue(result.hasNext());
+        assertEquals("{\"id\":2}", result.getContent().getFirst().rawValue());
+        verify(taskCountCache, never()).count(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should page search results with a rank cursor")
+    void testSearchTasks_NextCursor() {
+        //Arrange
+        TaskSearchResult best = new TaskSearchResult(2L, "Report", TaskStatus.PENDING, null, null, null, null, 0.9f, "<mark>Report</mark>", "");
+        TaskSearchResult second = new TaskSearchResult(1L, "Old report", TaskStatus.PENDING, null, null, null, null, 0.5f, "Old <mark>report</mark>", "");
+        when(taskSearchRepository.search(1L, "report", null, 2)).thenReturn(List.of(best, second));
+
+        //Act
+        CursorPageResponse<TaskSearchResult> result = taskService.searchTasks(1L, " report ", null, 1);
+
+        //Assert
+        assertEquals(1, result.content().size());
+        SearchCursor next = SearchCursor.decode(result.nextCursor());
+        assertEquals(0.9f, next.rank());
+        assertEquals(2L, next.id());
+    }
+
+    @Test
+    @DisplayName("Should move cached count when task status changes")
+    void testUpdateTaskStatus_AdjustsCount() {
+        //Arrange
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(mockTask));
+        when(taskRepository.save(any(Task.class))).thenReturn(mockTask);
+        when(taskMapper.toResponse(any(Task.class))).thenReturn(mockTaskResponse);
+
+        //Act
+        taskService.updateTaskStatus(1L, TaskStatus.COMPLETED, 1L, null);
+
+        //Assert
+        verify(taskCountCache).invalidate(1L);
+        verify(taskListCache).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("Should throw not found when acessing task from another user")
     void testGetTaskById_UnauthorizedAccess() {
         //Arrange
-        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(mockTask));
+        when(taskRepository.findResponseByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
 
         //Act and Assert
-        assertThrows(UnauthorizedAccessException.class, () -> {
-            taskService.getTaskById(1L, "anotheruser");
+        assertThrows(TaskNotFoundException.class, () -> {
+            taskService.getTaskById(1L, 2L);
         });
 
-        verify(taskRepository).findById(1L);
+        verify(taskRepository).findResponseByIdAndUserId(1L, 2L);
+        verify(taskRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should not delete task owned by another user")
+    void testDeleteTask_OtherOwner() {
+        //Arrange
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(mockTask));
+
+        //Act and Assert
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(1L, 2L));
+
+        verify(taskRepository, never()).delete(any(Task.class));
     }
 
     @Test
     @DisplayName("Should delete task successfully")
     void testDeleteTask_Success() {
         //Arrange
-        when(taskRepository.findById(anyLong())).thenReturn(Optional.of(mockTask));
+        when(taskRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(mockTask));
         doNothing().when(taskRepository).delete(any(Task.class));
 
         //Act
-        taskService.deleteTask(1L, "testuser");
+        taskService.deleteTask(1L, 1L);
 
         //Assert
-        verify(taskRepository).findById(1L);
+        verify(taskRepository).findByIdForUpdate(1L);
         verify(taskRepository).delete(mockTask);
 
     }
@@ -168,14 +282,14 @@ public class TaskServiceTest {
     @DisplayName("Should throw exception when deleting non-existent task")
     void testDeleteTask_NotFound() {
         //Arrange
-        when(taskRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(taskRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
         //Act and Assert
         assertThrows(TaskNotFoundException.class, () -> {
-            taskService.deleteTask(999L, "testuser");
+            taskService.deleteTask(999L, 1L);
         });
 
-        verify(taskRepository).findById(999L);
+        verify(taskRepository).findByIdForUpdate(999L);
         verify(taskRepository, never()).delete(any(Task.class));
     }
 }
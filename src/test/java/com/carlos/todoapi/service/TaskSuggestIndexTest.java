@@ -0,0 +1,126 @@
+package com.carlos.todoapi.service;
+
+import com.carlos.todoapi.dto.response.TaskSuggestion;
+import com.carlos.todoapi.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskSuggestIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskSuggestIndex suggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        suggestIndex = new TaskSuggestIndex(taskRepository, 1_000_000, 30, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should match any word prefix ignoring case and accents, loading only once")
+    void testSuggest_WordPrefix() {
+        //Arrange
+        when(taskRepository.findSuggestionsByUserId(1L)).thenReturn(List.of(
+                new TaskSuggestion(1L, "Relatório mensal"),
+                new TaskSuggestion(2L, "Enviar relatorio"),
+                new TaskSuggestion(3L, "Pagar aluguel")
+        ));
+
+        //Act
+        List<TaskSuggestion> byAccent = suggestIndex.suggest(1L, "RELAT", 10);
+        List<TaskSuggestion> byWord = suggestIndex.suggest(1L, "alu", 10);
+
+        //Assert
+        assertEquals(List.of(2L, 1L), byAccent.stream().map(TaskSuggestion::id).toList());
+        assertEquals("Pagar aluguel", byWord.getFirst().title());
+        verify(taskRepository, times(1)).findSuggestionsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Should apply writes to a loaded index without querying again")
+    void testSuggest_IncrementalUpdates() {
+        //Arrange
+        when(taskRepository.findSuggestionsByUserId(1L)).thenReturn(List.of(new TaskSuggestion(1L, "Old title")));
+        suggestIndex.suggest(1L, "old", 10);
+
+        //Act
+        suggestIndex.taskSaved(1L, 1L, "New title");
+        suggestIndex.taskSaved(1L, 2L, "Newsletter");
+        suggestIndex.taskDeleted(1L, 2L);
+
+        //Assert
+        assertTrue(suggestIndex.suggest(1L, "old", 10).isEmpty());
+        assertEquals(List.of(new TaskSuggestion(1L, "New title")), suggestIndex.suggest(1L, "new", 10));
+        verify(taskRepository, times(1)).findSuggestionsByUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Should give the same suggestions after incremental writes as a fresh load")
+    void testSuggest_IncrementalMatchesFreshLoad() {
+        //Arrange
+        when(taskRepository.findSuggestionsByUserId(1L)).thenReturn(List.of(
+                new TaskSuggestion(1L, "Pagar aluguel"),
+                new TaskSuggestion(2L, "Pagar conta de luz"),
+                new TaskSuggestion(3L, "Relatório mensal"),
+                new TaskSuggestion(4L, "Conta conta conta")
+        ));
+        suggestIndex.suggest(1L, "p", 10);
+
+        //Act
+        suggestIndex.taskSaved(1L, 2L, "Conta de água");
+        suggestIndex.taskSaved(1L, 5L, "Pagar cartão");
+        suggestIndex.taskDeleted(1L, 4L);
+        suggestIndex.taskSaved(1L, 3L, "Relatório anual");
+        suggestIndex.taskSaved(1L, 4L, "Aluguel de agosto");
+
+        //Assert
+        TaskSuggestIndex fresh = new TaskSuggestIndex(taskRepository, 1_000_000, 30, new SimpleMeterRegistry());
+        when(taskRepository.findSuggestionsByUserId(1L)).thenReturn(List.of(
+                new TaskSuggestion(1L, "Pagar aluguel"),
+                new TaskSuggestion(2L, "Conta de água"),
+                new TaskSuggestion(3L, "Relatório anual"),
+                new TaskSuggestion(4L, "Aluguel de agosto"),
+                new TaskSuggestion(5L, "Pagar cartão")
+        ));
+
+        for (String prefix : List.of("p", "pagar", "conta", "de", "a", "alu", "rel", "mensal", "anual", "luz", "c")) {
+            assertEquals(fresh.suggest(1L, prefix, 10), suggestIndex.suggest(1L, prefix, 10), prefix);
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply writes made inside a transaction only after it commits")
+    void testSuggest_AppliesAfterCommit() {
+        //Arrange
+        when(taskRepository.findSuggestionsByUserId(1L)).thenReturn(List.of(new TaskSuggestion(1L, "Old title")));
+        suggestIndex.suggest(1L, "old", 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            //Act
+            suggestIndex.taskSaved(1L, 1L, "New title");
+            List<TaskSuggestion> beforeCommit = suggestIndex.suggest(1L, "new", 10);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            //Assert
+            assertTrue(beforeCommit.isEmpty());
+            assertEquals(List.of(new TaskSuggestion(1L, "New title")), suggestIndex.suggest(1L, "new", 10));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}